@@ -0,0 +1,50 @@
+package studentworld.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import studentworld.grid.StudentWorldBoard;
+
+/**
+ * Times StudentWorldBoard.initializeBoard: door and student placement with the
+ * solvability check, followed by addPercepts. One cell in five holds a student,
+ * which matches the 5 students of the default 5x5 game.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	@Param({"5", "20", "50"})
+	public int boardSize;
+
+	// seeded once per trial so every run generates the same sequence of boards
+	private Random random;
+
+	@Setup
+	public void setUp() {
+		random = new Random(1);
+	}
+
+	@Benchmark
+	public StudentWorldBoard initializeBoard() {
+		StudentWorldBoard board = new StudentWorldBoard(boardSize, boardSize, boardSize*boardSize/5);
+		board.initializeBoard(random);
+		return board;
+	}
+}
@@ -0,0 +1,60 @@
+package studentworld.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import studentworld.StudentWorld;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.grid.StudentWorldBoardCorpus;
+import studentworld.simulation.StudentWorldNullDisplay;
+
+/**
+ * Times a full StudentWorld game played by a ScriptedPlayer that walks straight
+ * to the door. Games cycle through a fixed corpus of boards so that every run
+ * plays the same boards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+	private static final int CORPUS_SIZE = 64;
+	private static final long CORPUS_SEED = 1;
+
+	@Param({"5", "10", "20"})
+	public int boardSize;
+
+	private StudentWorldBoardCorpus corpus;
+	private int nextBoard;
+
+	@Setup
+	public void setUp() {
+		corpus = new StudentWorldBoardCorpus(boardSize, boardSize, boardSize*boardSize/5, CORPUS_SIZE, CORPUS_SEED);
+	}
+
+	@Benchmark
+	public int play() {
+		return play(corpus.createBoard(nextBoard++ % CORPUS_SIZE));
+	}
+
+	private int play(StudentWorldBoard board) {
+		StudentWorldNullDisplay display = new StudentWorldNullDisplay();
+		StudentWorld game = new StudentWorld(display, board);
+		ScriptedPlayer player = new ScriptedPlayer(display, board);
+		game.play(player);
+		return player.getNumActionsExecuted();
+	}
+}
@@ -0,0 +1,86 @@
+package studentworld.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import studentworld.StudentWorldConstraintPlanner;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.grid.StudentWorldCell;
+import studentworld.player.StudentWorldPlayer;
+import studentworld.simulation.StudentWorldNullDisplay;
+
+/**
+ * Times StudentWorldConstraintPlanner.getShortestPath. The "corridor" query follows
+ * the top row, the right column and the bottom row back to the bottom left cell, so
+ * the planner has to deepen its horizon from boardSize-1 to 3*(boardSize-1) over a
+ * small visited set. The "open" query crosses a fully visited board diagonally and
+ * is solved at the first horizon over a visited set of boardSize^2 cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlannerBenchmark {
+
+	@Param({"5", "10", "20"})
+	public int boardSize;
+
+	@Param({"corridor", "open"})
+	public String visited;
+
+	@Param({"table", "reified"})
+	public String encoding;
+
+	private StudentWorldBoard board;
+	private StudentWorldPlayer player;
+	private int targetRow;
+	private int targetCol;
+
+	@Setup
+	public void setUp() {
+		board = new StudentWorldBoard(boardSize, boardSize, 0);
+		player = createPlayer(board, visited);
+		targetRow = boardSize-1;
+		targetCol = "corridor".equals(visited) ? 0 : boardSize-1;
+	}
+
+	@Benchmark
+	public List<Action> getShortestPath() {
+		StudentWorldConstraintPlanner planner = new StudentWorldConstraintPlanner(player, board, targetRow, targetCol);
+		planner.setUseTableEncoding("table".equals(encoding));
+		return planner.getShortestPath();
+	}
+
+	/**
+	 * Creates a player in the top left cell that visited either the corridor or
+	 * the whole board.
+	 */
+	static StudentWorldPlayer createPlayer(StudentWorldBoard board, String visited) {
+		int size = board.getNumRows();
+		StudentWorldPlayer player = new StudentWorldPlayer(MoveAction.getAllActions(), new StudentWorldNullDisplay(), board.getCell(0,0), size, size);
+		for(int i=0; i<size; i++) {
+			for(int j=0; j<size; j++) {
+				if("open".equals(visited) || i == 0 || i == size-1 || j == size-1) {
+					player.addVisitedCell((StudentWorldCell)board.getCell(i, j));
+				}
+			}
+		}
+		return player;
+	}
+}
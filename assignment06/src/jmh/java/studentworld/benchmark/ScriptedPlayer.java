@@ -0,0 +1,61 @@
+package studentworld.benchmark;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import gridgames.display.Display;
+import studentworld.data.StudentWorldItem;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Player that reads the hidden board and walks down and right to the door. Board
+ * generation guarantees such a path exists, so every game is won in the same
+ * number of moves without any decision making cost.
+ */
+public class ScriptedPlayer extends StudentWorldPlayer {
+
+	private List<Action> moves;
+
+	public ScriptedPlayer(Display display, StudentWorldBoard board) {
+		super(MoveAction.getAllActions(), display, board.getPlayerCell(), board.getNumRows(), board.getNumCols());
+		this.moves = getMovesToDoor(board);
+	}
+
+	@Override
+	public Action getAction() {
+		return moves.remove(0);
+	}
+
+	private static List<Action> getMovesToDoor(StudentWorldBoard board) {
+		int numRows = board.getNumRows();
+		int numCols = board.getNumCols();
+		boolean[][] reachesDoor = new boolean[numRows+1][numCols+1];
+		List<Action> moves = new LinkedList<Action>();
+		int row = board.getPlayerCell().getRow();
+		int col = board.getPlayerCell().getCol();
+
+		for(int i=numRows-1; i>=0; i--) {
+			for(int j=numCols-1; j>=0; j--) {
+				if(board.getCell(i, j).getItems().contains(StudentWorldItem.DOOR)) {
+					reachesDoor[i][j] = true;
+				} else if(!board.getCell(i, j).getItems().contains(StudentWorldItem.STUDENT)) {
+					reachesDoor[i][j] = reachesDoor[i+1][j] || reachesDoor[i][j+1];
+				}
+			}
+		}
+
+		while(!board.getCell(row, col).getItems().contains(StudentWorldItem.DOOR)) {
+			if(reachesDoor[row+1][col]) {
+				moves.add(MoveAction.DOWN);
+				row++;
+			} else {
+				moves.add(MoveAction.RIGHT);
+				col++;
+			}
+		}
+		return moves;
+	}
+}
@@ -0,0 +1,58 @@
+package studentworld.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gridgames.data.action.Action;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.planner.StudentWorldSearchPlanner;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Times StudentWorldSearchPlanner on the same queries as PlannerBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchPlannerBenchmark {
+
+	@Param({"5", "10", "20", "50"})
+	public int boardSize;
+
+	@Param({"corridor", "open"})
+	public String visited;
+
+	private StudentWorldSearchPlanner planner;
+	private StudentWorldPlayer player;
+	private int targetRow;
+	private int targetCol;
+
+	@Setup
+	public void setUp() {
+		StudentWorldBoard board = new StudentWorldBoard(boardSize, boardSize, 0);
+		planner = new StudentWorldSearchPlanner(board);
+		player = PlannerBenchmark.createPlayer(board, visited);
+		targetRow = boardSize-1;
+		targetCol = "corridor".equals(visited) ? 0 : boardSize-1;
+	}
+
+	@Benchmark
+	public List<Action> getShortestPath() {
+		return planner.getShortestPath(player, targetRow, targetCol);
+	}
+}
@@ -1,6 +1,7 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
 
 import gridgames.data.Direction;
 import gridgames.data.action.Action;
@@ -8,22 +9,33 @@ import gridgames.data.action.MoveAction;
 import gridgames.display.ConsoleDisplay;
 import gridgames.display.Display;
 import gridgames.display.EV3Display;
-import gridgames.ev3.EV3;
 import gridgames.grid.Cell;
 import gridgames.player.EV3Player;
 import gridgames.player.HumanPlayer;
 import gridgames.player.Player;
 import studentworld.StudentWorld;
+import studentworld.display.StudentWorldBufferedDisplay;
+import studentworld.ev3.StudentWorldAsyncActuator;
 import studentworld.ev3.StudentWorldEV3;
+import studentworld.ev3.StudentWorldEV3Actuator;
+import studentworld.metrics.StudentWorldPrintTurnSink;
+import studentworld.planner.StudentWorldTurnAwarePlanner;
 import studentworld.player.CSPPlayer;
 import studentworld.player.StudentWorldEV3Player;
+import studentworld.player.StudentWorldPlannerPlayer;
 import studentworld.player.StudentWorldPlayer;
+import studentworld.simulation.StudentWorldSimulation;
 
 public class Main {
     public static void main(String[] args) {
     	List<Action> allActions = Arrays.asList(MoveAction.MOVE_ACTIONS);
     	if(args.length > 0 && "-console".equals(args[0])) {
     		runOnConsole(allActions);
+    	} else if(args.length > 0 && "-watch".equals(args[0])) {
+    		runWatch(args.length > 1 ? Integer.parseInt(args[1]) : 1);
+    	} else if(args.length > 1 && "-simulate".equals(args[0])) {
+    		runSimulation(Integer.parseInt(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors(),
+    				args.length > 3 ? Long.valueOf(args[3]) : null);
     	} else {
     		runOnRobot(allActions);
     	}
@@ -48,17 +60,54 @@ public class Main {
         scanner.close();
     }
     
+    /**
+     * Plays one game with the planner player on the console, rendering only the
+     * cells that changed every renderInterval moves, or only the end of the game
+     * if it is 0.
+     */
+    public static void runWatch(int renderInterval) {
+    	StudentWorldBufferedDisplay display = new StudentWorldBufferedDisplay(renderInterval);
+    	StudentWorld game = new StudentWorld(display, 5, 5, 5);
+    	game.play(StudentWorldSimulation.PLANNER_PLAYER.createPlayer(game, display));
+    }
+    
+    /**
+     * Plays the given number of games with the planner player and no display,
+     * then prints a summary of the outcomes. Boards are random unless a seed is given.
+     */
+    public static void runSimulation(int numGames, int numThreads, Long seed) {
+    	StudentWorldSimulation simulation = new StudentWorldSimulation(5, 5, 5, StudentWorldSimulation.PLANNER_PLAYER, numThreads);
+    	if(seed != null) {
+    		simulation.setSeed(seed);
+    	}
+    	try {
+    		simulation.run(numGames).dump(System.out);
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	} catch (ExecutionException e) {
+    		e.printStackTrace();
+    	}
+    }
+    
     public static void runOnRobot(List<Action> allActions) {
     	EV3Display display = new EV3Display();
     	StudentWorld game = new StudentWorld(display, 5, 5, 5);
         Cell initialCell = game.getInitialCell();
         String instructions = "Place the robot in the upper left most cell facing right";
-        EV3 ev3 = new StudentWorldEV3(Direction.RIGHT, "StudentWorld", instructions, 100, 50, true, 100);
-        Player p = new StudentWorldPlayer(MoveAction.getAllActions(), display, initialCell);
-        EV3Player robot = new StudentWorldEV3Player(ev3, p);
+        //no button press per move, the moves run on the actuator's thread while the game is ahead
+        StudentWorldEV3 ev3 = new StudentWorldEV3(Direction.RIGHT, "StudentWorld", instructions, 100, 50, false, 100);
+        //paths are chosen by how long the robot takes to drive them, turns included
+        game.setPathPlanner(new StudentWorldTurnAwarePlanner(game.getBoard(), ev3.getExecutionCost()));
+        //prints where the turns spent their time once the game is over
+        game.setTurnSink(new StudentWorldPrintTurnSink());
+        Player p = new StudentWorldPlannerPlayer(MoveAction.getAllActions(), display, initialCell, game.getPathPlanner());
+        //the robot drives on a worker thread while the next move is decided
+        StudentWorldAsyncActuator actuator = new StudentWorldAsyncActuator(new StudentWorldEV3Actuator(ev3), 2);
+        EV3Player robot = new StudentWorldEV3Player(ev3, p, actuator);
         display.setEv3Display(ev3.getDisplay());
         ev3.displayInstructions();
         game.play(robot);
+        actuator.shutdown();
     }
     
     private static Player getPlayer(Scanner scanner, StudentWorld game, Display display) {
@@ -72,7 +121,7 @@ public class Main {
          } while(!choice.equals("human") && !choice.equals("computer"));
     	 
     	 if(choice.equals("human")) {
-    		 StudentWorldPlayer studentWorldPlayer = new StudentWorldPlayer(actions, display, initialCell);
+    		 StudentWorldPlayer studentWorldPlayer = new StudentWorldPlayer(actions, display, initialCell, game.getBoard().getNumRows(), game.getBoard().getNumCols());
     		 player = new HumanPlayer(studentWorldPlayer, scanner);
          } else {
     		 player = new CSPPlayer(actions, display, initialCell);
@@ -1,6 +1,10 @@
 package studentworld;
 
+import java.util.Random;
+
+import gridgames.data.Direction;
 import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
 import gridgames.display.Display;
 import gridgames.game.Game;
 import gridgames.grid.Cell;
@@ -11,6 +15,11 @@ import lejos.hardware.Button;
 import studentworld.data.StudentWorldPercept;
 import studentworld.grid.StudentWorldBoard;
 import studentworld.grid.StudentWorldCell;
+import studentworld.metrics.StudentWorldTurnMetrics;
+import studentworld.metrics.StudentWorldTurnPhase;
+import studentworld.metrics.StudentWorldTurnSink;
+import studentworld.planner.StudentWorldPathPlanner;
+import studentworld.planner.StudentWorldSearchPlanner;
 import studentworld.player.CSPPlayer;
 import studentworld.player.StudentWorldEV3Player;
 import studentworld.player.StudentWorldPlayer;
@@ -21,6 +30,10 @@ public class StudentWorld extends Game {
     private int numRows;
     private int numCols;
     private int numStudents;
+    private StudentWorldPathPlanner pathPlanner;
+    private StudentWorldTurnMetrics turnMetrics;
+    private StudentWorldTurnSink turnSink;
+    private StudentWorldTurnMetrics lastTurnMetrics;
 
     public StudentWorld(Display display, int numRows, int numCols, int numStudents) {
     	this.numRows = numRows;
@@ -30,10 +43,70 @@ public class StudentWorld extends Game {
     	initializeBoard();
     }
 
+    /**
+     * Creates a game whose board is generated from the seed, so the same seed
+     * always gives the same board.
+     */
+    public StudentWorld(Display display, int numRows, int numCols, int numStudents, long seed) {
+    	StudentWorldBoard board = new StudentWorldBoard(numRows, numCols, numStudents);
+    	this.numRows = numRows;
+    	this.numCols = numCols;
+    	this.numStudents = numStudents;
+    	this.display = display;
+    	board.initializeBoard(new Random(seed));
+    	setBoard(board);
+    }
+
+    /**
+     * Creates a game on an initialized board, e.g. one from a StudentWorldBoardCorpus.
+     */
+    public StudentWorld(Display display, StudentWorldBoard board) {
+    	this.numRows = board.getNumRows();
+    	this.numCols = board.getNumCols();
+    	this.numStudents = board.getNumStudents();
+    	this.display = display;
+    	setBoard(board);
+    }
+
     public Cell getInitialCell() {
         return this.board.getPlayerCell();
     }
 
+    /**
+     * Returns the planner players should use for shortest path queries on this
+     * board, a breadth-first search unless another planner was set.
+     */
+    public StudentWorldPathPlanner getPathPlanner() {
+        return this.pathPlanner;
+    }
+
+    public void setPathPlanner(StudentWorldPathPlanner pathPlanner) {
+        this.pathPlanner = pathPlanner;
+    }
+
+    /**
+     * Sets the metrics every game records the time of its turn phases into, e.g.
+     * one instance shared by the games of a simulation. Without it every game
+     * records into new metrics.
+     */
+    public void setTurnMetrics(StudentWorldTurnMetrics turnMetrics) {
+        this.turnMetrics = turnMetrics;
+    }
+
+    /**
+     * Sets the sink told about every timed phase and about the end of every game.
+     */
+    public void setTurnSink(StudentWorldTurnSink turnSink) {
+        this.turnSink = turnSink;
+    }
+
+    /**
+     * Returns the metrics the last game recorded into, or null before the first game.
+     */
+    public StudentWorldTurnMetrics getTurnMetrics() {
+        return this.lastTurnMetrics;
+    }
+
     public void play(Player player) {
     	StudentWorldPlayer studentWorldPlayer = (StudentWorldPlayer) player.getGamePlayer();
     	boolean isHumanPlayer = player instanceof HumanPlayer || player instanceof CSPPlayer;
@@ -42,36 +115,63 @@ public class StudentWorld extends Game {
         Cell currentCell;
         Action move;
         boolean turnWithoutMove;
+        long turnStart;
+        long phaseStart;
+        long displayNanos;
         
+        lastTurnMetrics = turnMetrics != null ? turnMetrics : new StudentWorldTurnMetrics();
         do {
+            turnStart = System.nanoTime();
             currentCell = this.board.getPlayerCell();
             player.setCell(currentCell);
             for(StudentWorldPercept p : ((StudentWorldCell) player.getCell()).getPercepts()) {
         		display.addMessage(p.getMessage());
         	}
+            phaseStart = timePhase(StudentWorldTurnPhase.PERCEPTS, turnStart);
             
             if(isHumanPlayer) {
             	display.printState(false);
             } else {
             	display.printBoard(false);
             }
+            displayNanos = System.nanoTime()-phaseStart;
+            phaseStart += displayNanos;
             
             move = player.getAction();
+            phaseStart = timePhase(StudentWorldTurnPhase.DECISION, phaseStart);
         	studentWorldPlayer.incrementNumActionsExecuted();
+        	if(move instanceof MoveAction) {
+        		studentWorldPlayer.setHeading(Direction.getDirectionFromMoveAction(move));
+        	}
         	board.movePlayer(move);
+        	phaseStart = timePhase(StudentWorldTurnPhase.MOVE, phaseStart);
         	
         	if(!isHumanPlayer) {
         		display.printMessages();
         	}
+        	displayNanos += System.nanoTime()-phaseStart;
+        	recordPhase(StudentWorldTurnPhase.DISPLAY, displayNanos);
+        	phaseStart = System.nanoTime();
         	
         	isGameOver = isGameOver();
+        	phaseStart = timePhase(StudentWorldTurnPhase.GAME_OVER, phaseStart);
         	//move robot
         	if(player instanceof StudentWorldEV3Player) {
         		turnWithoutMove = currentCell.equals(this.board.getPlayerCell());
         		((StudentWorldEV3Player)player).processAction(move, turnWithoutMove);
         	}
+        	timePhase(StudentWorldTurnPhase.ACTUATION, phaseStart);
+        	lastTurnMetrics.recordTurn(System.nanoTime()-turnStart);
         } while (!isGameOver);
         
+        if(player instanceof StudentWorldEV3Player) {
+        	phaseStart = System.nanoTime();
+        	((StudentWorldEV3Player)player).finishActions();
+        	timePhase(StudentWorldTurnPhase.ACTUATION, phaseStart);
+        }
+        if(turnSink != null) {
+        	turnSink.gameEnded(lastTurnMetrics);
+        }
         if (((StudentWorldBoard)board).didWin()) {
             display.addMessage("Congratulations you're free!");
         } else {
@@ -80,19 +180,43 @@ public class StudentWorld extends Game {
         display.addMessage("You made " + studentWorldPlayer.getNumActionsExecuted() + " moves.");
         display.printState(true);
         
-        if(isEV3Player) {
+        //a simulated robot has no EV3 and no buttons
+        if(isEV3Player && ((EV3Player)player).getEv3() != null) {
         	Button.waitForAnyPress();
         }
     }
 
+    /**
+     * Records the time since the start of the phase and returns the current time,
+     * the start of the next phase.
+     */
+    private long timePhase(StudentWorldTurnPhase phase, long phaseStart) {
+        long now = System.nanoTime();
+        recordPhase(phase, now-phaseStart);
+        return now;
+    }
+
+    private void recordPhase(StudentWorldTurnPhase phase, long nanos) {
+        lastTurnMetrics.record(phase, nanos);
+        if(turnSink != null) {
+        	turnSink.phaseTimed(phase, nanos);
+        }
+    }
+
     private boolean isGameOver() {
         return ((StudentWorldBoard)board).didLose() || ((StudentWorldBoard)board).didWin();
     }
 
 	@Override
 	public void initializeBoard() {
-		this.board = new StudentWorldBoard(numRows, numCols, numStudents);
-		((StudentWorldBoard)this.board).initializeBoard();
-		this.display.setBoard(board);		
+		StudentWorldBoard board = new StudentWorldBoard(numRows, numCols, numStudents);
+		board.initializeBoard();
+		setBoard(board);
+	}
+
+	private void setBoard(StudentWorldBoard board) {
+		this.board = board;
+		this.pathPlanner = new StudentWorldSearchPlanner(this.board);
+		this.display.setBoard(board);
 	}
 }
@@ -1,15 +1,22 @@
 package studentworld;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.chocosolver.solver.ICause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IVariableMonitor;
 import org.chocosolver.solver.variables.IntVar;
@@ -22,279 +29,589 @@ import org.chocosolver.solver.variables.events.IEventType;
 import org.chocosolver.solver.variables.view.IView;
 import org.chocosolver.util.iterators.DisposableRangeIterator;
 import org.chocosolver.util.iterators.DisposableValueIterator;
+import org.chocosolver.util.criteria.Criterion;
 import org.chocosolver.util.iterators.EvtScheduler;
 import org.chocosolver.util.objects.setDataStructures.iterable.IntIterableSet;
 
 import gridgames.data.action.Action;
 import gridgames.data.action.MoveAction;
+import gridgames.grid.Board;
 import gridgames.grid.Cell;
 import studentworld.grid.StudentWorldCell;
+import studentworld.planner.StudentWorldDistances;
+import studentworld.planner.StudentWorldHorizonStats;
+import studentworld.planner.StudentWorldPlannerMetrics;
+import studentworld.planner.StudentWorldPlannerStats;
+import studentworld.planner.StudentWorldPlanResult;
+import studentworld.planner.StudentWorldPlanStatus;
+import studentworld.planner.StudentWorldPlannerTrace;
+import studentworld.planner.StudentWorldSearchStrategy;
 import studentworld.player.StudentWorldPlayer;
 
 public class StudentWorldConstraintPlanner {
+	private static final int DEFAULT_NUM_ROWS = 5;
+	private static final int DEFAULT_NUM_COLS = 5;
+	
 	private StudentWorldPlayer player;
-	private Model model;
 	private int targetRow;
 	private int targetCol;
-	private List<IntVar> moves;
-	private List<IntVar> playerCells;
-	private Solver solver;
+	private int numRows;
+	private int numCols;
+	private StudentWorldDistances distances;
+	private boolean useTableEncoding;
+	private StudentWorldPlannerTrace trace;
+	private StudentWorldPlannerMetrics metrics;
+	private StudentWorldSearchStrategy searchStrategy;
+	private StudentWorldPlanResult lastResult;
+	private long timeBudgetNanos;
+	private long nodeBudget;
+	
+	/**
+	 * Creates a planner for the board that can be shared between threads once it
+	 * is configured: every call to plan builds its own model, so the planner itself
+	 * holds no state of a search.
+	 */
+	public StudentWorldConstraintPlanner(Board board) {
+		this.numRows = board.getNumRows();
+		this.numCols = board.getNumCols();
+		this.distances = new StudentWorldDistances(numRows, numCols);
+		this.useTableEncoding = true;
+		this.searchStrategy = StudentWorldSearchStrategy.TARGET_DIRECTED;
+	}
 	
+	/**
+	 * Creates a planner for a single query on a 5x5 board, answered by getShortestPath.
+	 */
 	public StudentWorldConstraintPlanner(StudentWorldPlayer player, int targetRow, int targetCol) {
 		this.player = player;
 		this.targetRow = targetRow;
 		this.targetCol = targetCol;
+		this.numRows = DEFAULT_NUM_ROWS;
+		this.numCols = DEFAULT_NUM_COLS;
+		this.distances = new StudentWorldDistances(numRows, numCols);
+		this.useTableEncoding = true;
+		this.searchStrategy = StudentWorldSearchStrategy.TARGET_DIRECTED;
+	}
+	
+	/**
+	 * Creates a planner for a single query on a board of any size; cell numbers and
+	 * neighbors are derived from the dimensions of the given board.
+	 */
+	public StudentWorldConstraintPlanner(StudentWorldPlayer player, Board board, int targetRow, int targetCol) {
+		this(player, targetRow, targetCol);
+		this.numRows = board.getNumRows();
+		this.numCols = board.getNumCols();
+		this.distances = new StudentWorldDistances(numRows, numCols);
+	}
+	
+	/**
+	 * Selects how a move between two consecutive player cells is encoded: a single
+	 * table constraint over (cell, move, next cell) when true, or the original
+	 * reified ifThen/or constraints when false.
+	 */
+	public void setUseTableEncoding(boolean useTableEncoding) {
+		this.useTableEncoding = useTableEncoding;
+	}
+	
+	public boolean usesTableEncoding() {
+		return this.useTableEncoding;
+	}
+	
+	/**
+	 * Reports every horizon attempt to the given trace, or to nothing when null.
+	 * Tracing is off by default.
+	 */
+	public void setTrace(StudentWorldPlannerTrace trace) {
+		this.trace = trace;
+	}
+	
+	/**
+	 * Records the statistics of every call into the given metrics, or nowhere when null.
+	 */
+	public void setMetrics(StudentWorldPlannerMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	public void setSearchStrategy(StudentWorldSearchStrategy searchStrategy) {
+		this.searchStrategy = searchStrategy;
+	}
+	
+	/**
+	 * Limits the time every call to plan may take, 0 for no limit. A plan that
+	 * runs out of time falls back to a path walked down the breadth-first
+	 * distances, so the player always gets a move when the target is reachable.
+	 */
+	public void setTimeBudget(long time, TimeUnit unit) {
+		this.timeBudgetNanos = unit.toNanos(time);
+	}
+	
+	/**
+	 * Limits the number of search nodes of every call to plan, summed over all
+	 * horizons, 0 for no limit. Unlike a time budget, a node budget gives the same
+	 * result on every machine.
+	 */
+	public void setNodeBudget(long nodeBudget) {
+		this.nodeBudget = nodeBudget;
+	}
+	
+	/**
+	 * Plans the shortest path of the player to the target. Safe to call from
+	 * several threads at once.
+	 */
+	public StudentWorldPlanResult plan(StudentWorldPlayer player, int targetRow, int targetCol) {
+		return plan(player, targetRow, targetCol, null);
 	}
 	
-	public void initializeConstraintPlanner() {
-		model = new Model("studentworld planner");
-		moves = new ArrayList<IntVar>();
-		playerCells = new ArrayList<IntVar>();
-		solver = model.getSolver();
+	/**
+	 * Plans the shortest path of the player to the target, giving up as soon as
+	 * the stop flag is set, which lets another thread cancel a plan that is no
+	 * longer needed.
+	 */
+	public StudentWorldPlanResult plan(StudentWorldPlayer player, int targetRow, int targetCol, AtomicBoolean stopped) {
+		return new Search(player, targetRow, targetCol, stopped).run();
 	}
 	
+	/**
+	 * Answers the query given to the constructor.
+	 * Returns null if the target cannot be reached.
+	 */
 	public List<Action> getShortestPath() {
-		int numMoves = getMinNumMoves(player.getCell(), targetRow, targetCol);
+		if(player == null) {
+			throw new IllegalStateException("planner was created without a query, use plan(player, targetRow, targetCol)");
+		}
+		lastResult = plan(player, targetRow, targetCol);
+		return lastResult.getActions();
+	}
+	
+	/**
+	 * Returns the statistics of the last call to getShortestPath.
+	 */
+	public StudentWorldPlannerStats getStats() {
+		return lastResult == null ? null : lastResult.getStats();
+	}
+	
+	/**
+	 * Returns the result of the last call to getShortestPath.
+	 */
+	public StudentWorldPlanResult getLastResult() {
+		return lastResult;
+	}
+	
+	private int getMinNumMoves(Cell startCell, int targetRow, int targetCol) {
+		int startRow = startCell.getRow();
+		int startCol = startCell.getCol();
+		return Math.abs(targetRow-startRow) + Math.abs(targetCol-startCol);
+	}
+	
+	private int getCellNum(int row, int col) {
+		return row*numCols+col;
+	}
+	
+	/**
+	 * The model and solver of a single call to plan.
+	 */
+	private class Search {
+		private StudentWorldPlayer player;
+		private int targetRow;
+		private int targetCol;
+		private AtomicBoolean stopped;
+		private Model model;
+		private List<IntVar> moves;
+		private List<IntVar> playerCells;
+		private Solver solver;
+		private BitSet visitedCellNums;
+		private int[] visitedArr;
+		private int[] cellDomain;
+		private Tuples transitions;
+		private int[] startDistances;
+		private int[] targetDistances;
+		private long deadline;
+		private long numNodes;
+		
+		private Search(StudentWorldPlayer player, int targetRow, int targetCol, AtomicBoolean stopped) {
+			this.player = player;
+			this.targetRow = targetRow;
+			this.targetCol = targetCol;
+			this.stopped = stopped;
+		}
+		
+		public void initializeConstraintPlanner() {
+			model = new Model("studentworld planner");
+			moves = new ArrayList<IntVar>();
+			playerCells = new ArrayList<IntVar>();
+			solver = model.getSolver();
+		}
+	
+		/**
+		 * Searches for the shortest path by deepening the horizon one move at a time.
+		 * A single model is kept for the whole search: only the constraint fixing the
+		 * last cell to the target depends on the horizon, so it is the only one that is
+		 * removed when the horizon is extended.
+		 * Every player cell is limited to the cells that are far enough from the start
+		 * and close enough to the target, so horizons that are too short mostly fail
+		 * during the initial propagation.
+		 * A shortest path never visits a cell twice, so the horizon never exceeds the
+		 * number of cells a path can go through.
+		 * The result has no path if the target cannot be reached or the search was
+		 * stopped through the stop flag. When the budget runs out first, the result
+		 * holds the fallback path instead.
+		 */
+		private StudentWorldPlanResult run() {
+			int numMoves = getMinNumMoves(player.getCell(), targetRow, targetCol);
+			List<Constraint> horizonConstraints;
+			long buildStart = System.nanoTime();
+			StudentWorldPlanStatus status;
+			long solveStart;
+			boolean solved;
+			StudentWorldHorizonStats horizonStats;
+			StudentWorldPlannerStats stats = new StudentWorldPlannerStats();
 		
-		do {
+			deadline = buildStart + timeBudgetNanos;
 			initializeConstraintPlanner();
+			createVisitedCells();
+			createDistances();
+			if(startDistances[getCellNum(targetRow, targetCol)] == StudentWorldDistances.UNREACHABLE) {
+				if(metrics != null) {
+					metrics.record(stats);
+				}
+				return new StudentWorldPlanResult(StudentWorldPlanStatus.UNREACHABLE, null, null, stats);
+			}
 			createVariables(numMoves);
 			createConstraints(numMoves);
-			numMoves++;
-		} while(!solver.solve());
+			horizonConstraints = postHorizonConstraints();
 		
-		return getMoveActions();
-	}
+			while(true) {
+				configureSolver();
+				solveStart = System.nanoTime();
+				solved = solver.solve();
+				// solver measures are cleared by reset, so they only cover this horizon
+				horizonStats = new StudentWorldHorizonStats(moves.size(), model.getNbVars(), model.getNbCstrs(),
+						solveStart-buildStart, System.nanoTime()-solveStart,
+						solver.getNodeCount(), solver.getFailCount(), solver.getBackTrackCount(), solved);
+				stats.addHorizon(horizonStats);
+				numNodes += solver.getNodeCount();
+				if(trace != null) {
+					trace.horizonAttempted(horizonStats);
+				}
+				if(solved || solver.isStopCriterionMet() || moves.size() >= cellDomain.length-1) {
+					break;
+				}
+			
+				// the model can only be modified once the search has been reset
+				buildStart = System.nanoTime();
+				solver.reset();
+				for(Constraint constraint : horizonConstraints) {
+					model.unpost(constraint);
+				}
+				extendHorizon();
+				horizonConstraints = postHorizonConstraints();
+			}
+		
+			if(metrics != null) {
+				metrics.record(stats);
+			}
+			if(solved) {
+				status = StudentWorldPlanStatus.OPTIMAL;
+			} else if(stopped != null && stopped.get()) {
+				status = StudentWorldPlanStatus.STOPPED;
+			} else if(solver.isStopCriterionMet()) {
+				return getFallbackResult(stats);
+			} else {
+				status = StudentWorldPlanStatus.UNREACHABLE;
+			}
+			if(!solved) {
+				return new StudentWorldPlanResult(status, null, null, stats);
+			}
+			return new StudentWorldPlanResult(status, getMoveActions(), getCells(), stats);
+		}
+		
+		/**
+		 * Returns the path walked down the distances to the target, used when the
+		 * budget runs out before the solver finds a path.
+		 */
+		private StudentWorldPlanResult getFallbackResult(StudentWorldPlannerStats stats) {
+			int start = getCellNum(player.getCell().getRow(), player.getCell().getCol());
+			List<Action> path = distances.getPath(start, targetDistances);
+			int[] cells = new int[path.size()+1];
+			cells[0] = start;
+			for(int i = 0; i < path.size(); i++) {
+				cells[i+1] = distances.getNeighborCellNum(cells[i], ((MoveAction) path.get(i)).ordinal());
+			}
+			return new StudentWorldPlanResult(StudentWorldPlanStatus.FALLBACK, path, cells, stats);
+		}
+	
+		/**
+		 * Sets the search strategy and stop criteria, which have to be given again
+		 * after every reset since the model has grown and reset removes stop criteria.
+		 * The budgets are shared by all horizons, so each horizon only gets what the
+		 * previous ones left.
+		 */
+		private void configureSolver() {
+			AbstractStrategy<IntVar> search = searchStrategy.getSearch(playerCells.toArray(new IntVar[playerCells.size()]),
+					moves.toArray(new IntVar[moves.size()]), targetDistances);
+			if(search != null) {
+				solver.setSearch(search);
+			}
+			if(stopped != null) {
+				solver.addStopCriterion(new Criterion() {
+					@Override
+					public boolean isMet() {
+						return stopped.get();
+					}
+				});
+			}
+			if(timeBudgetNanos > 0) {
+				solver.addStopCriterion(new Criterion() {
+					@Override
+					public boolean isMet() {
+						return System.nanoTime()-deadline >= 0;
+					}
+				});
+			}
+			if(nodeBudget > 0) {
+				solver.addStopCriterion(new Criterion() {
+					@Override
+					public boolean isMet() {
+						return numNodes + solver.getNodeCount() >= nodeBudget;
+					}
+				});
+			}
+		}
 	
-	private void createVariables(int numMoves) {	
-		// get current cell
-        StudentWorldCell currentCell = (StudentWorldCell) player.getCell();
-        int currentRow = currentCell.getRow();
-        int currentCol = currentCell.getCol();
+		private void createVariables(int numMoves) {	
+			// get current cell
+	        StudentWorldCell currentCell = (StudentWorldCell) player.getCell();
+	        int currentRow = currentCell.getRow();
+	        int currentCol = currentCell.getCol();
 
-        //************UPDATE MOVES************
-        System.out.println(numMoves);
-        System.out.println("moves:");
-        // moves
-        for (int i = 0; i < numMoves; i++) 
-        {
-        	moves.add(model.intVar(0,3));
-        }
+	        //************UPDATE MOVES************
+	        // moves with domains [0, 3]
+	        for (int i = 0; i < numMoves; i++) 
+	        {
+	        	moves.add(model.intVar(0,3));
+	        }
         
-        System.out.println("Stored moves with domains: [0, 3] " + "x" + numMoves);
+	        //************UPDATE PLAYERCELLS************
         
-        
-        //************UPDATE PLAYERCELLS************
-        
-        // store current position (initial cell)
-        System.out.println("\nplayerCells: (x" + (numMoves+1) + ")");
-        this.playerCells.add(model.intVar(getCellNum(currentRow, currentCol)));
-        System.out.println("Stored: " + getCellNum(currentRow, currentCol));
-        // store in-between domains
-        for(int i = 0; i < numMoves-1; i++)	// -1 since we populate last index with target cell
-        {
-        	playerCells.add(model.intVar(0, 24));
+	        // store current position (initial cell)
+	        this.playerCells.add(model.intVar(getCellNum(currentRow, currentCol)));
+	        // store the remaining positions, the last one is tied to the target by postHorizonConstraints
+	        for(int i = 1; i <= numMoves; i++)
+	        {
+	        	playerCells.add(model.intVar(getStepDomain(i)));
         	
-        }
-        System.out.println("Stored positions with domains: [0, 24] " + "x"+ (numMoves - 1));
-        // store target position
-        this.playerCells.add(model.intVar(getCellNum(targetRow, targetCol)));
-        System.out.println("Stored: " + getCellNum(targetRow, targetCol) + "\n\n");
-	}
+	        }
+		}
 	
+		/**
+		 * Flattens the visited cells into cell numbers. Player cells can only take a
+		 * visited cell or the target, which keeps domains proportional to the explored
+		 * area rather than to the size of the board.
+		 */
+		private void createVisitedCells() {
+	        int index = 0;
+	        int targetCellNum = getCellNum(targetRow, targetCol);
 
-	private void createConstraints(int numMoves) {
-		// get current cell
-        StudentWorldCell currentCell = (StudentWorldCell) player.getCell();
-        int currentRow = currentCell.getRow();
-        int currentCol = currentCell.getCol();
-        int index = 0;
-
-        // create array with flatten list of visited cells
-        int[] visitedArr = new int[player.getVisitedCells().size()];
-        
+	        // create array with flatten list of visited cells, in increasing order
+	        visitedCellNums = player.getVisitedCellNums(numCols);
+	        visitedArr = new int[visitedCellNums.cardinality()];
         
-        // get a list of all the pre-defined neighbors that was initiated to true before the game
-        ArrayList<IntVar> visitedCells = new ArrayList<IntVar>();
-        IntVar[] preDefinedVisitedIntVars;
-        preDefinedVisitedIntVars = new IntVar[visitedArr.length];;
-		for (StudentWorldCell visitedCell : player.getVisitedCells()) 
-		{
-			visitedArr[index] = getCellNum(visitedCell.getRow(), visitedCell.getCol());
-			preDefinedVisitedIntVars[index] = model.intVar(getCellNum(visitedCell.getRow(), visitedCell.getCol()));
-			visitedCells.add(model.intVar(getCellNum(visitedCell.getRow(), visitedCell.getCol())));
-			index++;
+			for (int cellNum = visitedCellNums.nextSetBit(0); cellNum >= 0; cellNum = visitedCellNums.nextSetBit(cellNum+1)) 
+			{
+				visitedArr[index] = cellNum;
+				index++;
+			}
+		
+			if(visitedCellNums.get(targetCellNum)) {
+				cellDomain = Arrays.copyOf(visitedArr, visitedArr.length);
+			} else {
+				cellDomain = Arrays.copyOf(visitedArr, visitedArr.length+1);
+				cellDomain[visitedArr.length] = targetCellNum;
+				Arrays.sort(cellDomain);
+			}
+		}
+
+		private void createDistances() {
+			int targetCellNum = getCellNum(targetRow, targetCol);
+			startDistances = distances.getDistancesFrom(getCellNum(player.getCell().getRow(), player.getCell().getCol()), targetCellNum, visitedCellNums);
+			targetDistances = distances.getDistancesTo(targetCellNum, visitedCellNums);
 		}
 	
-		
-		// set constraints on first and last cell
-		model.arithm(playerCells.get(0), "=", getCellNum(currentCell.getRow(), currentCell.getCol())).post();
-		model.arithm(playerCells.get(playerCells.size()-1), "=", getCellNum(targetRow, targetCol)).post();
+		/**
+		 * Returns the cells the player can be on after the given number of moves. The
+		 * board is a bipartite grid, so a cell can only be reached in a number of moves
+		 * that has the same parity as its distance from the start.
+		 */
+		private int[] getStepDomain(int step) {
+			int[] domain = new int[cellDomain.length];
+			int size = 0;
+			int distance;
+			for(int cellNum : cellDomain) {
+				distance = startDistances[cellNum];
+				if(distance != StudentWorldDistances.UNREACHABLE && distance <= step && (step-distance)%2 == 0) {
+					domain[size++] = cellNum;
+				}
+			}
+			return Arrays.copyOf(domain, size);
+		}
 
+		private void createConstraints(int numMoves) {
+			// get current cell
+	        StudentWorldCell currentCell = (StudentWorldCell) player.getCell();
 		
-		for(int k = 0; k < numMoves; k++)
-		{
-			validPlayerCellConstrains(k);
+			if(useTableEncoding) {
+				transitions = createTransitions();
+			}
+	
+			// set constraint on first cell
+			model.arithm(playerCells.get(0), "=", getCellNum(currentCell.getRow(), currentCell.getCol())).post();
+		
+			// we want to update every number of moves in playerCells and moves
+			for (int i = 0; i < numMoves; i++) {
+				createMoveConstraints(i);
+			}
+		}
+	
+		/**
+		 * Adds one move to the horizon, reusing every variable and constraint already
+		 * posted for the previous moves.
+		 */
+		private void extendHorizon() {
+			moves.add(model.intVar(0,3));
+			playerCells.add(model.intVar(getStepDomain(moves.size())));
+			createMoveConstraints(moves.size()-1);
 		}
 	
+		/**
+		 * Posts the constraints that depend on the horizon: the last cell is the target
+		 * and every cell before it must be close enough to reach the target in the
+		 * remaining moves.
+		 */
+		private List<Constraint> postHorizonConstraints() {
+			List<Constraint> constraints = new ArrayList<Constraint>();
+			int horizon = moves.size();
+			int[] domain;
+			int size;
 		
-		// we want to update every number of moves in playerCells and moves
-		for (int i = 0; i < numMoves; i++) {
-			// we want to set constraints on all the cells in the board
-			for(int cellPos = 0; cellPos < 25; cellPos++) {
-				// we need to identify the valid neighbors for the given player cell
-				model.ifThen(model.arithm(playerCells.get(i), "=", cellPos), model.or(model.arithm(playerCells.get(i+1), "=", cellPos+5),
-						model.arithm(playerCells.get(i+1), "=", cellPos-5), model.arithm(playerCells.get(i+1), "=", cellPos+1),
-						model.arithm(playerCells.get(i+1), "=", cellPos-1)));
-				
-				
-				// we need to set valid neighbors
-				if(cellPos == 0)
-				{
-					validPlayerCellConstrains(i);
+			constraints.add(model.arithm(playerCells.get(horizon), "=", getCellNum(targetRow, targetCol)));
+			for(int i = 1; i < horizon; i++) {
+				domain = new int[cellDomain.length];
+				size = 0;
+				for(int cellNum : cellDomain) {
+					if(targetDistances[cellNum] != StudentWorldDistances.UNREACHABLE && targetDistances[cellNum] <= horizon-i) {
+						domain[size++] = cellNum;
+					}
 				}
-				
-				// check if the cell is a valid neighbor and cannot be assigned to non-visited
-				if(!cellMatchVisit(visitedArr, cellPos))
-				{
-					// set fixed constraint on matching a non-visited cell position
-					model.arithm(playerCells.get(i), "!=", cellPos).post();
+				if(size == 0) {
+					constraints.add(model.falseConstraint());
+				} else {
+					constraints.add(model.member(playerCells.get(i), Arrays.copyOf(domain, size)));
 				}
-				
 			}
-			
-			// identify the next possible moves
-			model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",-5),model.arithm(moves.get(i),"=", model.intVar(2)));	// down
-			model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",5),model.arithm(moves.get(i),"=",model.intVar(0)));	// up
-			model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",1),model.arithm(moves.get(i),"=",model.intVar(3)));	// left
-			model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",-1),model.arithm(moves.get(i),"=",model.intVar(1)));	// right
-		}
-	}
-
-	public boolean cellMatchVisit(int[] visitedArr, int cellPos) 
-	{
-		for (int i = 0; i < visitedArr.length; i++) 
-		{
-			// if they match, then we know we can visit them
-			if (visitedArr[i] == cellPos) 
-			{
-				return true;
+			for(Constraint constraint : constraints) {
+				constraint.post();
 			}
+			return constraints;
 		}
-		// if we haven't found a match, that means we have to set 
-		// playerCells value to false for that cell position
-		return false;
-	}
-
 	
-	public void visitConstraints(ArrayList<IntVar> visitedCells, int numMoves)
-	{
-		
-		for (int i = 0; i < numMoves; i++) {
-			for (int j = 0; j < visitedCells.size(); j++) {
-		model.ifThen(model.and(
-				model.or(model.arithm(visitedCells.get(j), "=", 4), model.arithm(visitedCells.get(j), "=", 9),
-						model.arithm(visitedCells.get(j), "=", 14), model.arithm(visitedCells.get(j), "=", 19),
-						model.arithm(visitedCells.get(j), "=", 24)),
-				model.or(model.arithm(playerCells.get(i), "=", 5), model.arithm(playerCells.get(i), "=", 10),
-						model.arithm(playerCells.get(i), "=", 15), model.arithm(playerCells.get(i), "=", 20))),
-				model.arithm(playerCells.get(i + 1), "!=", visitedCells.get(j)));
+		private void createMoveConstraints(int i) {
+			if(useTableEncoding) {
+				model.table(new IntVar[] {playerCells.get(i), moves.get(i), playerCells.get(i+1)}, transitions).post();
+			} else {
+				createReifiedMoveConstraints(i);
 			}
 		}
-	}
 	
+		/**
+		 * Builds the allowed (cell, move, next cell) tuples. Only visited cells can be
+		 * moved from, so the table also replaces the per-cell non-visited constraints.
+		 */
+		private Tuples createTransitions() {
+			Tuples tuples = new Tuples(true);
+			int neighbor;
+			for(int cellNum : visitedArr) {
+				for(int move = 0; move < 4; move++) {
+					neighbor = distances.getNeighborCellNum(cellNum, move);
+					if(neighbor >= 0) {
+						tuples.add(cellNum, move, neighbor);
+					}
+				}
+			}
+			return tuples;
+		}
 	
-	public void validPlayerCellConstrains(int i)
-	{
-		model.ifThen(model.arithm(playerCells.get(i), "=", 0),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 1), model.arithm(playerCells.get(i + 1), "=", 5)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 1), model.or(model.arithm(playerCells.get(i + 1), "=", 0),
-				model.arithm(playerCells.get(i + 1), "=", 6), model.arithm(playerCells.get(i + 1), "=", 2)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 2), model.or(model.arithm(playerCells.get(i + 1), "=", 1),
-				model.arithm(playerCells.get(i + 1), "=", 7), model.arithm(playerCells.get(i + 1), "=", 3)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 3), model.or(model.arithm(playerCells.get(i + 1), "=", 2),
-				model.arithm(playerCells.get(i + 1), "=", 8), model.arithm(playerCells.get(i + 1), "=", 4)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 4),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 3), model.arithm(playerCells.get(i + 1), "=", 9)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 5), model.or(model.arithm(playerCells.get(i + 1), "=", 10),
-				model.arithm(playerCells.get(i + 1), "=", 6), model.arithm(playerCells.get(i + 1), "=", 0)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 6),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 1), model.arithm(playerCells.get(i + 1), "=", 5),
-						model.arithm(playerCells.get(i + 1), "=", 11), model.arithm(playerCells.get(i + 1), "=", 7)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 7),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 2), model.arithm(playerCells.get(i + 1), "=", 6),
-						model.arithm(playerCells.get(i + 1), "=", 12), model.arithm(playerCells.get(i + 1), "=", 8)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 8),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 3), model.arithm(playerCells.get(i + 1), "=", 7),
-						model.arithm(playerCells.get(i + 1), "=", 9), model.arithm(playerCells.get(i + 1), "=", 13)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 9), model.or(model.arithm(playerCells.get(i + 1), "=", 4),
-				model.arithm(playerCells.get(i + 1), "=", 8), model.arithm(playerCells.get(i + 1), "=", 14)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 10), model.or(model.arithm(playerCells.get(i + 1), "=", 5),
-				model.arithm(playerCells.get(i + 1), "=", 11), model.arithm(playerCells.get(i + 1), "=", 15)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 11),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 6), model.arithm(playerCells.get(i + 1), "=", 10),
-						model.arithm(playerCells.get(i + 1), "=", 16), model.arithm(playerCells.get(i + 1), "=", 12)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 12),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 7), model.arithm(playerCells.get(i + 1), "=", 13),
-						model.arithm(playerCells.get(i + 1), "=", 17), model.arithm(playerCells.get(i + 1), "=", 11)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 13),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 14), model.arithm(playerCells.get(i + 1), "=", 8),
-						model.arithm(playerCells.get(i + 1), "=", 12), model.arithm(playerCells.get(i + 1), "=", 18)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 14), model.or(model.arithm(playerCells.get(i + 1), "=", 9),
-				model.arithm(playerCells.get(i + 1), "=", 19), model.arithm(playerCells.get(i + 1), "=", 13)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 15), model.or(model.arithm(playerCells.get(i + 1), "=", 10),
-				model.arithm(playerCells.get(i + 1), "=", 16), model.arithm(playerCells.get(i + 1), "=", 20)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 16),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 17), model.arithm(playerCells.get(i + 1), "=", 11),
-						model.arithm(playerCells.get(i + 1), "=", 15), model.arithm(playerCells.get(i + 1), "=", 21)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 17),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 12), model.arithm(playerCells.get(i + 1), "=", 18),
-						model.arithm(playerCells.get(i + 1), "=", 22), model.arithm(playerCells.get(i + 1), "=", 16)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 18),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 13), model.arithm(playerCells.get(i + 1), "=", 19),
-						model.arithm(playerCells.get(i + 1), "=", 23), model.arithm(playerCells.get(i + 1), "=", 17)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 19), model.or(model.arithm(playerCells.get(i + 1), "=", 14),
-				model.arithm(playerCells.get(i + 1), "=", 24), model.arithm(playerCells.get(i + 1), "=", 18)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 20),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 21), model.arithm(playerCells.get(i + 1), "=", 15)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 21), model.or(model.arithm(playerCells.get(i + 1), "=", 22),
-				model.arithm(playerCells.get(i + 1), "=", 16), model.arithm(playerCells.get(i + 1), "=", 20)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 22), model.or(model.arithm(playerCells.get(i + 1), "=", 23),
-				model.arithm(playerCells.get(i + 1), "=", 17), model.arithm(playerCells.get(i + 1), "=", 21)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 23), model.or(model.arithm(playerCells.get(i + 1), "=", 24),
-				model.arithm(playerCells.get(i + 1), "=", 18), model.arithm(playerCells.get(i + 1), "=", 22)));
-		model.ifThen(model.arithm(playerCells.get(i), "=", 24),
-				model.or(model.arithm(playerCells.get(i + 1), "=", 19), model.arithm(playerCells.get(i + 1), "=", 23)));
-	}
-
+		private void createReifiedMoveConstraints(int i) {
+			int targetCellNum = getCellNum(targetRow, targetCol);
 		
+			// the target can only be moved through if it was visited
+			if(!visitedCellNums.get(targetCellNum))
+			{
+				model.arithm(playerCells.get(i), "!=", targetCellNum).post();
+			}
 		
-	
-	private List<Action> getMoveActions() {
-		List<Action> moveActions = new ArrayList<Action>();
-		int plannerMove;
-		for(IntVar move: moves) {
-			plannerMove = move.getValue();
-			if(plannerMove == 0) {
-				moveActions.add(MoveAction.UP);
-			} else if(plannerMove == 1) {
-				moveActions.add(MoveAction.RIGHT);
-			} else if(plannerMove == 2) {
-				moveActions.add(MoveAction.DOWN);
-			} else if(plannerMove == 3) {
-				moveActions.add(MoveAction.LEFT);
+			// we need to set valid neighbors
+			validPlayerCellConstrains(i);
+		
+			// identify the next possible moves
+			model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",-numCols),model.arithm(moves.get(i),"=", model.intVar(2)));	// down
+			model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",numCols),model.arithm(moves.get(i),"=",model.intVar(0)));	// up
+			// on a single column board a difference of one is a vertical move
+			if(numCols > 1) {
+				model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",1),model.arithm(moves.get(i),"=",model.intVar(3)));	// left
+				model.ifThen(model.arithm(playerCells.get(i),"-",playerCells.get(i+1),"=",-1),model.arithm(moves.get(i),"=",model.intVar(1)));	// right
+			}
+		}
+
+		/**
+		 * Restricts the cell after move i to the board neighbors of the cell before it,
+		 * for every cell the player can occupy.
+		 */
+		public void validPlayerCellConstrains(int i)
+		{
+			List<Constraint> neighbors = new ArrayList<Constraint>();
+			int neighbor;
+			for(int cellNum : visitedArr)
+			{
+				neighbors.clear();
+				for(int move = 0; move < 4; move++) {
+					neighbor = distances.getNeighborCellNum(cellNum, move);
+					if(neighbor >= 0) {
+						neighbors.add(model.arithm(playerCells.get(i + 1), "=", neighbor));
+					}
+				}
+				if(neighbors.isEmpty()) {
+					model.arithm(playerCells.get(i), "!=", cellNum).post();
+				} else {
+					model.ifThen(model.arithm(playerCells.get(i), "=", cellNum),
+							model.or(neighbors.toArray(new Constraint[neighbors.size()])));
+				}
 			}
 		}
-		return moveActions;
-	}
 	
-	private int getMinNumMoves(Cell startCell, int targetRow, int targetCol) {
-		int startRow = startCell.getRow();
-		int startCol = startCell.getCol();
-		return Math.abs(targetRow-startRow) + Math.abs(targetCol-startCol);
-	}
+		private int[] getCells() {
+			int[] cells = new int[playerCells.size()];
+			for(int i = 0; i < cells.length; i++) {
+				cells[i] = playerCells.get(i).getValue();
+			}
+			return cells;
+		}
 	
-	private int getCellNum(int row, int col) {
-		return row*5+col;
+		private List<Action> getMoveActions() {
+			List<Action> moveActions = new ArrayList<Action>();
+			int plannerMove;
+			for(IntVar move: moves) {
+				plannerMove = move.getValue();
+				if(plannerMove == 0) {
+					moveActions.add(MoveAction.UP);
+				} else if(plannerMove == 1) {
+					moveActions.add(MoveAction.RIGHT);
+				} else if(plannerMove == 2) {
+					moveActions.add(MoveAction.DOWN);
+				} else if(plannerMove == 3) {
+					moveActions.add(MoveAction.LEFT);
+				}
+			}
+			return moveActions;
+		}
 	}
 }
@@ -0,0 +1,145 @@
+package studentworld.display;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import gridgames.display.Display;
+import gridgames.grid.Board;
+
+/**
+ * Console display for watching computer players on long games. Output is built
+ * in a buffer and written once per render, and only the first render and the
+ * one at the end of the game print the whole board; the others print the cells
+ * that changed since the last render and the messages added since then.
+ *
+ * Every call of printState or printBoard during the game is a turn, and only
+ * every renderInterval-th turn is rendered, or none until the game is over
+ * with RENDER_AT_END. Messages are kept until the next render, which prints
+ * them under the board they belong to; a message repeating the one before it is
+ * only kept once.
+ */
+public class StudentWorldBufferedDisplay extends Display {
+	public static final int RENDER_AT_END = 0;
+
+	private PrintStream out;
+	private int renderInterval;
+	private StringBuilder buffer;
+	private List<String> pendingMessages;
+	//cell displays as of the last render, null until the board was rendered once
+	private String[] renderedCells;
+	private int numTurns;
+
+	public StudentWorldBufferedDisplay(int renderInterval) {
+		this(System.out, renderInterval);
+	}
+
+	public StudentWorldBufferedDisplay(PrintStream out, int renderInterval) {
+		if(renderInterval < 0) {
+			throw new IllegalArgumentException("renderInterval must not be negative: " + renderInterval);
+		}
+		this.out = out;
+		this.renderInterval = renderInterval;
+		this.buffer = new StringBuilder();
+		this.pendingMessages = new ArrayList<String>();
+	}
+
+	@Override
+	public void setBoard(Board board) {
+		super.setBoard(board);
+		this.renderedCells = null;
+		this.numTurns = 0;
+		this.pendingMessages.clear();
+	}
+
+	@Override
+	public void printState(boolean isGameOver) {
+		printBoard(isGameOver);
+	}
+
+	@Override
+	public void printBoard(boolean isGameOver) {
+		takeMessages();
+		if(isGameOver) {
+			renderBoard(true);
+			flush();
+		} else if(renderInterval != RENDER_AT_END && ++numTurns % renderInterval == 0) {
+			if(renderedCells == null) {
+				renderBoard(false);
+			} else {
+				renderChangedCells();
+			}
+			flush();
+		}
+	}
+
+	@Override
+	public void printMessages() {
+		takeMessages();
+	}
+
+	private void takeMessages() {
+		for(String message : messages) {
+			if(pendingMessages.isEmpty() || !message.equals(pendingMessages.get(pendingMessages.size()-1))) {
+				pendingMessages.add(message);
+			}
+		}
+		messages.clear();
+	}
+
+	/**
+	 * Appends the whole board in the layout of ConsoleDisplay.
+	 */
+	private void renderBoard(boolean isGameOver) {
+		int numRows = board.getNumRows();
+		int numCols = board.getNumCols();
+		String cellDisplay;
+		renderedCells = new String[numRows*numCols];
+		buffer.append('\n');
+		for(int row = 0; row < numRows; row++) {
+			appendBorder(numCols);
+			buffer.append('|');
+			for(int col = 0; col < numCols; col++) {
+				cellDisplay = getCellDisplay(board.getCell(row, col), isGameOver);
+				renderedCells[row*numCols+col] = cellDisplay;
+				buffer.append(cellDisplay);
+			}
+			buffer.append('\n');
+		}
+		appendBorder(numCols);
+	}
+
+	/**
+	 * Appends one line per cell whose display changed since the last render.
+	 */
+	private void renderChangedCells() {
+		int numCols = board.getNumCols();
+		String cellDisplay;
+		for(int cellNum = 0; cellNum < renderedCells.length; cellNum++) {
+			cellDisplay = getCellDisplay(board.getCell(cellNum/numCols, cellNum%numCols), false);
+			if(!cellDisplay.equals(renderedCells[cellNum])) {
+				renderedCells[cellNum] = cellDisplay;
+				buffer.append('(').append(cellNum/numCols).append(',').append(cellNum%numCols).append(") ")
+						.append(cellDisplay.replace('|', ' ').trim()).append('\n');
+			}
+		}
+	}
+
+	private void appendBorder(int numCols) {
+		buffer.append('+');
+		for(int col = 0; col < numCols; col++) {
+			buffer.append("---+");
+		}
+		buffer.append('\n');
+	}
+
+	private void flush() {
+		for(String message : pendingMessages) {
+			buffer.append(message).append('\n');
+		}
+		pendingMessages.clear();
+		out.print(buffer);
+		out.flush();
+		buffer.setLength(0);
+	}
+}
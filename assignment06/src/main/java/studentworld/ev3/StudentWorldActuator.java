@@ -0,0 +1,20 @@
+package studentworld.ev3;
+
+import gridgames.data.action.Action;
+
+/**
+ * Executes the moves of a game on a robot, real or simulated.
+ */
+public interface StudentWorldActuator {
+
+	/**
+	 * Turns the robot to face the move and, unless turnOnly is set because the
+	 * move was blocked, drives it one cell forward.
+	 */
+	void execute(Action move, boolean turnOnly);
+
+	/**
+	 * Waits until every move given to execute has been carried out.
+	 */
+	void awaitIdle() throws InterruptedException;
+}
@@ -0,0 +1,98 @@
+package studentworld.ev3;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import gridgames.data.action.Action;
+
+/**
+ * Hands moves to another actuator on a worker thread, so the game can decide
+ * its next move while the robot is still driving. Moves are executed one at a
+ * time in the order they were given. At most maxPending moves are queued or
+ * executing; execute blocks beyond that, which keeps the robot from falling
+ * further behind the game than the pipeline allows.
+ *
+ * A move that fails is reported by the next call to execute or awaitIdle.
+ *
+ * The wrapped actuator runs on the worker thread while the game and its display
+ * are already moves ahead, so it must not wait for the user: an EV3 wrapped in
+ * this actuator has to be created with waitForPress off.
+ */
+public class StudentWorldAsyncActuator implements StudentWorldActuator {
+	private StudentWorldActuator actuator;
+	private ExecutorService executor;
+	private int maxPending;
+	private Semaphore pending;
+	private AtomicReference<RuntimeException> failure;
+	private AtomicLong waitNanos;
+
+	public StudentWorldAsyncActuator(StudentWorldActuator actuator, int maxPending) {
+		this.actuator = actuator;
+		this.maxPending = maxPending;
+		this.pending = new Semaphore(maxPending);
+		this.failure = new AtomicReference<RuntimeException>();
+		this.waitNanos = new AtomicLong();
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				// an unfinished move must not keep the program alive
+				Thread thread = new Thread(runnable, "studentworld-actuator");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	@Override
+	public void execute(final Action move, final boolean turnOnly) {
+		long start = System.nanoTime();
+		checkFailure();
+		pending.acquireUninterruptibly();
+		waitNanos.addAndGet(System.nanoTime()-start);
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					actuator.execute(move, turnOnly);
+				} catch(RuntimeException e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					pending.release();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void awaitIdle() throws InterruptedException {
+		long start = System.nanoTime();
+		pending.acquire(maxPending);
+		pending.release(maxPending);
+		waitNanos.addAndGet(System.nanoTime()-start);
+		actuator.awaitIdle();
+		checkFailure();
+	}
+
+	/**
+	 * Returns how long the game has waited for the robot, in execute when the
+	 * pipeline was full and in awaitIdle.
+	 */
+	public long getWaitNanos() {
+		return waitNanos.get();
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private void checkFailure() {
+		RuntimeException e = failure.getAndSet(null);
+		if(e != null) {
+			throw new IllegalStateException("robot failed to execute a move", e);
+		}
+	}
+}
@@ -2,10 +2,25 @@ package studentworld.ev3;
 
 import gridgames.data.Direction;
 import gridgames.ev3.EV3;
+import studentworld.planner.StudentWorldExecutionCost;
 
 public class StudentWorldEV3 extends EV3 {
+	private StudentWorldExecutionCost executionCost;
 	
 	public StudentWorldEV3(Direction facingDirection, String programTitle, String instructions, int linearSpeed, int angularSpeed, boolean waitForPress, int numMoveUnits) {
 		super(facingDirection, programTitle, instructions, linearSpeed, angularSpeed, waitForPress, numMoveUnits);
+		this.executionCost = new StudentWorldExecutionCost(linearSpeed, angularSpeed, numMoveUnits);
+	}
+	
+	/**
+	 * Returns how long this robot takes to turn and drive, from the speeds and
+	 * move distance it was built with.
+	 */
+	public StudentWorldExecutionCost getExecutionCost() {
+		return executionCost;
+	}
+	
+	public Direction getFacingDirection() {
+		return facingDirection;
 	}
 }
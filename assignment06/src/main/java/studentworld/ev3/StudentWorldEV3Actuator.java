@@ -0,0 +1,28 @@
+package studentworld.ev3;
+
+import gridgames.data.action.Action;
+import gridgames.ev3.EV3;
+
+/**
+ * Executes moves on the EV3, returning once the robot has stopped.
+ */
+public class StudentWorldEV3Actuator implements StudentWorldActuator {
+	private EV3 ev3;
+
+	public StudentWorldEV3Actuator(EV3 ev3) {
+		this.ev3 = ev3;
+	}
+
+	@Override
+	public void execute(Action move, boolean turnOnly) {
+		if(turnOnly) {
+			ev3.turn(move);
+		} else {
+			ev3.move(move);
+		}
+	}
+
+	@Override
+	public void awaitIdle() {
+	}
+}
@@ -0,0 +1,74 @@
+package studentworld.ev3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import gridgames.data.Direction;
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import studentworld.planner.StudentWorldExecutionCost;
+
+/**
+ * Stands in for the EV3 when there is no robot: it keeps track of the heading
+ * and of every move it executed, and takes as long as the execution cost says
+ * the robot would, scaled by timeScale, so pipelines can be tested and timed
+ * without hardware. A timeScale of 0 executes moves instantly.
+ */
+public class StudentWorldSimulatedEV3 implements StudentWorldActuator {
+	private StudentWorldExecutionCost cost;
+	private double timeScale;
+	private Direction heading;
+	private List<Action> moves;
+	private double seconds;
+
+	public StudentWorldSimulatedEV3(StudentWorldExecutionCost cost, double timeScale, Direction heading) {
+		this.cost = cost;
+		this.timeScale = timeScale;
+		this.heading = heading;
+		this.moves = Collections.synchronizedList(new ArrayList<Action>());
+	}
+
+	@Override
+	public void execute(Action move, boolean turnOnly) {
+		int from = StudentWorldExecutionCost.getMoveIndex(heading);
+		int to = ((MoveAction) move).ordinal();
+		double moveSeconds = cost.getTurnSeconds(from, to) + (turnOnly ? 0 : cost.getMoveSeconds());
+		try {
+			TimeUnit.NANOSECONDS.sleep((long) (moveSeconds*timeScale*1e9));
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized(this) {
+			heading = Direction.getDirectionFromMoveAction(move);
+			seconds += moveSeconds;
+		}
+		moves.add(move);
+	}
+
+	@Override
+	public void awaitIdle() {
+	}
+
+	public synchronized Direction getHeading() {
+		return heading;
+	}
+
+	/**
+	 * Returns the moves executed so far, in order.
+	 */
+	public List<Action> getMoves() {
+		synchronized(moves) {
+			return new ArrayList<Action>(moves);
+		}
+	}
+
+	/**
+	 * Returns the time the robot would have taken for the moves executed so far,
+	 * before scaling.
+	 */
+	public synchronized double getSeconds() {
+		return seconds;
+	}
+}
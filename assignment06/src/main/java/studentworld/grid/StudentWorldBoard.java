@@ -1,16 +1,27 @@
 package studentworld.grid;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
-import gridgames.data.item.Item;
+import gridgames.data.action.Action;
 import gridgames.data.item.MoveItem;
 import gridgames.grid.Board;
+import gridgames.grid.Cell;
 import studentworld.data.StudentWorldItem;
 import studentworld.data.StudentWorldPercept;
 
 public class StudentWorldBoard extends Board {
 
+    private static final int[] ROW_OFFSETS = {-1, 0, 1, 0};
+    private static final int[] COL_OFFSETS = {0, 1, 0, -1};
+
     private int numStudents;
+    private int doorRow;
+    private int doorCol;
+    //cells reachable from the player cell moving only down and right without meeting a student
+    private boolean[][] reachableCells;
+    //flags of every cell and the player position, kept in sync once the board is initialized
+    private StudentWorldPackedBoard packedBoard;
 
     public StudentWorldBoard(int numRows, int numCols, int numStudents) {
     	super(numRows, numCols);
@@ -24,27 +35,276 @@ public class StudentWorldBoard extends Board {
     }
 
     public void initializeBoard() {
-    	cells[0][0].add(MoveItem.PLAYER);
-    	cells[0][0].setVisited(true);
-        placeDoor();
-        placeStudents(numStudents);
-        addPercepts();
+        initializeBoard(new Random());
+    }
+
+    /**
+     * Places the door and the students with the given random source, so boards
+     * generated from the same seed are identical. Each thread generating boards
+     * should use its own random source.
+     */
+    public void initializeBoard(Random random) {
+        placePlayer();
+        placeDoor(random);
+        placeStudents(numStudents, random);
+        packedBoard = createPackedBoard();
+    }
+
+    /**
+     * Places the door and the students of the layout, e.g. one replayed from a
+     * StudentWorldBoardCorpus, instead of generating them.
+     */
+    public void initializeBoard(StudentWorldBoardLayout layout) {
+        if(layout.getNumRows() != numRows || layout.getNumCols() != numCols) {
+            throw new IllegalArgumentException("layout is for a " + layout.getNumRows() + "x" + layout.getNumCols() + " board");
+        }
+        placePlayer();
+        addItem(layout.getDoorCellNum()/numCols, layout.getDoorCellNum()%numCols, StudentWorldItem.DOOR);
+        for(int cellNum : layout.getStudentCellNums()) {
+            addItem(cellNum/numCols, cellNum%numCols, StudentWorldItem.STUDENT);
+        }
+        packedBoard = createPackedBoard();
+    }
+
+    /**
+     * Places the items and percepts of numRows*numCols cell flags in the format of
+     * StudentWorldBoardFormat, read from the current position of the buffer.
+     * Nothing is derived, so the flags must be consistent with each other.
+     */
+    public void initializeBoard(ByteBuffer cellFlags) {
+        placePlayer();
+        for(int i=0; i<numRows; i++) {
+            for(int j=0; j<numCols; j++) {
+                placeFlags(i, j, cellFlags.get());
+            }
+        }
+        packedBoard = createPackedBoard();
+    }
+
+    /**
+     * Restores a snapshot taken with snapshot(): the items, percepts and visited
+     * cells of every cell and the position of the player. Whatever the board
+     * held before is replaced, so a board can be rolled back to an earlier snapshot.
+     */
+    public void initializeBoard(StudentWorldPackedBoard snapshot) {
+        int playerCellNum = snapshot.getPlayerCellNum();
+        StudentWorldCell cell;
+        if(snapshot.getNumRows() != numRows || snapshot.getNumCols() != numCols) {
+            throw new IllegalArgumentException("snapshot is of a " + snapshot.getNumRows() + "x" + snapshot.getNumCols() + " board");
+        }
+        for(int i=0; i<numRows; i++) {
+            for(int j=0; j<numCols; j++) {
+                cell = (StudentWorldCell) cells[i][j];
+                cell.removeAll();
+                cell.getPercepts().clear();
+                cell.setVisited(false);
+                placeFlags(i, j, snapshot.getFlags(i*numCols+j));
+            }
+        }
+        cells[playerCellNum/numCols][playerCellNum%numCols].add(MoveItem.PLAYER);
+        packedBoard = snapshot.copy();
+    }
+
+    /**
+     * Returns a copy of the packed flags and player position. Taking a snapshot
+     * copies one byte per cell, so search can branch from it cheaply and only
+     * build a full board, with initializeBoard or StudentWorldPackedBoard.createBoard,
+     * when it needs one.
+     */
+    public StudentWorldPackedBoard snapshot() {
+        return packedBoard != null ? packedBoard.copy() : createPackedBoard();
+    }
+
+    /**
+     * Adds the item to the cell and its percept to the neighbors of the cell,
+     * e.g. to move a student on a board that changes during the game.
+     */
+    public void addItem(int row, int col, StudentWorldItem item) {
+        cells[row][col].add(item);
+        if(StudentWorldItem.DOOR.equals(item)) {
+            doorRow = row;
+            doorCol = col;
+        }
+        for(int move = 0; move < 4; move++) {
+            if(isOnBoard(row+ROW_OFFSETS[move], col+COL_OFFSETS[move])) {
+                ((StudentWorldCell) cells[row+ROW_OFFSETS[move]][col+COL_OFFSETS[move]]).addPerceptForItem(item);
+            }
+        }
+        updatePackedBoard(row, col);
+    }
+
+    /**
+     * Removes the item from the cell. A neighbor keeps the percept of the item
+     * only while another of its own neighbors still holds one.
+     */
+    public void removeItem(int row, int col, StudentWorldItem item) {
+        int neighborRow;
+        int neighborCol;
+        cells[row][col].remove(item);
+        for(int move = 0; move < 4; move++) {
+            neighborRow = row+ROW_OFFSETS[move];
+            neighborCol = col+COL_OFFSETS[move];
+            if(isOnBoard(neighborRow, neighborCol) && !hasAdjacentItem(neighborRow, neighborCol, item)) {
+                ((StudentWorldCell) cells[neighborRow][neighborCol]).removePerceptForItem(item);
+            }
+        }
+        updatePackedBoard(row, col);
+    }
+
+    public int getNumStudents() {
+        return numStudents;
+    }
+
+    /**
+     * Returns the packed flags of the board, or null before it is initialized.
+     * They follow the player, so callers must not modify them.
+     */
+    public StudentWorldPackedBoard getPackedBoard() {
+        return packedBoard;
     }
 
     public boolean didLose() {
+        if(packedBoard != null) {
+            return packedBoard.didLose();
+        }
         return getPlayerCell().getItems().contains(StudentWorldItem.STUDENT);
     }
 
     public boolean didWin() {
+        if(packedBoard != null) {
+            return packedBoard.didWin();
+        }
         return getPlayerCell().getItems().contains(StudentWorldItem.DOOR);
     }
 
+    /**
+     * Looks the player cell up from the packed board instead of searching every
+     * cell for the player.
+     */
+    @Override
+    public Cell getPlayerCell() {
+        int cellNum;
+        if(packedBoard == null) {
+            return super.getPlayerCell();
+        }
+        cellNum = packedBoard.getPlayerCellNum();
+        return cells[cellNum/numCols][cellNum%numCols];
+    }
+
+    @Override
+    public void movePlayer(Action action) {
+        int playerCellNum;
+        int neighbor;
+        super.movePlayer(action);
+        if(packedBoard == null) {
+            return;
+        }
+        //the player is either still in its cell or in one of its neighbors
+        playerCellNum = packedBoard.getPlayerCellNum();
+        for(int move = 0; move < 4; move++) {
+            neighbor = packedBoard.getNeighborCellNum(playerCellNum, move);
+            if(neighbor >= 0 && cells[neighbor/numCols][neighbor%numCols].contains(MoveItem.PLAYER)) {
+                packedBoard.movePlayer(neighbor);
+                return;
+            }
+        }
+    }
+
     public Set<StudentWorldPercept> getCurrentPercepts() {
         return ((StudentWorldCell) getPlayerCell()).getPercepts();
     }
 
-    private void placeDoor() {
-        Random r = new Random();
+    private void placePlayer() {
+    	cells[0][0].add(MoveItem.PLAYER);
+    	cells[0][0].setVisited(true);
+    }
+
+    private void placeFlags(int row, int col, int flags) {
+        StudentWorldCell cell = (StudentWorldCell) cells[row][col];
+        if((flags & StudentWorldBoardFormat.DOOR) != 0) {
+            cell.add(StudentWorldItem.DOOR);
+            doorRow = row;
+            doorCol = col;
+        }
+        if((flags & StudentWorldBoardFormat.STUDENT) != 0) {
+            cell.add(StudentWorldItem.STUDENT);
+        }
+        if((flags & StudentWorldBoardFormat.SMELL) != 0) {
+            cell.addPercept(StudentWorldPercept.SMELL);
+        }
+        if((flags & StudentWorldBoardFormat.GLOW) != 0) {
+            cell.addPercept(StudentWorldPercept.GLOW);
+        }
+        if((flags & StudentWorldPackedBoard.VISITED) != 0) {
+            cell.setVisited(true);
+        }
+    }
+
+    private StudentWorldPackedBoard createPackedBoard() {
+        StudentWorldPackedBoard packed = new StudentWorldPackedBoard(numRows, numCols);
+        for(int i=0; i<numRows; i++) {
+            for(int j=0; j<numCols; j++) {
+                packed.setFlags(i*numCols+j, getFlags((StudentWorldCell) cells[i][j]));
+                if(cells[i][j].contains(MoveItem.PLAYER)) {
+                    packed.movePlayer(i*numCols+j);
+                }
+            }
+        }
+        return packed;
+    }
+
+    private int getFlags(StudentWorldCell cell) {
+        int flags = 0;
+        if(cell.contains(StudentWorldItem.STUDENT)) {
+            flags |= StudentWorldBoardFormat.STUDENT;
+        }
+        if(cell.contains(StudentWorldItem.DOOR)) {
+            flags |= StudentWorldBoardFormat.DOOR;
+        }
+        if(cell.getPercepts().contains(StudentWorldPercept.SMELL)) {
+            flags |= StudentWorldBoardFormat.SMELL;
+        }
+        if(cell.getPercepts().contains(StudentWorldPercept.GLOW)) {
+            flags |= StudentWorldBoardFormat.GLOW;
+        }
+        if(cell.wasVisited()) {
+            flags |= StudentWorldPackedBoard.VISITED;
+        }
+        return flags;
+    }
+
+    /**
+     * Copies the flags of the cell and its neighbors to the packed board once the
+     * board is initialized; generation builds the packed board when it is done.
+     */
+    private void updatePackedBoard(int row, int col) {
+        if(packedBoard == null) {
+            return;
+        }
+        packedBoard.setFlags(row*numCols+col, getFlags((StudentWorldCell) cells[row][col]));
+        for(int move = 0; move < 4; move++) {
+            if(isOnBoard(row+ROW_OFFSETS[move], col+COL_OFFSETS[move])) {
+                packedBoard.setFlags((row+ROW_OFFSETS[move])*numCols+col+COL_OFFSETS[move],
+                        getFlags((StudentWorldCell) cells[row+ROW_OFFSETS[move]][col+COL_OFFSETS[move]]));
+            }
+        }
+    }
+
+    private boolean hasAdjacentItem(int row, int col, StudentWorldItem item) {
+        for(int move = 0; move < 4; move++) {
+            if(isOnBoard(row+ROW_OFFSETS[move], col+COL_OFFSETS[move])
+                    && cells[row+ROW_OFFSETS[move]][col+COL_OFFSETS[move]].contains(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < numRows && col >= 0 && col < numCols;
+    }
+
+    private void placeDoor(Random r) {
         int row;
         int col;
         //repeat until a valid placement is found
@@ -52,13 +312,14 @@ public class StudentWorldBoard extends Board {
             row = r.nextInt(this.numRows);
             col = r.nextInt(this.numCols);
         } while(row+col <= 1);
-        cells[row][col].add(StudentWorldItem.DOOR);
+        addItem(row, col, StudentWorldItem.DOOR);
     }
 
-    private void placeStudents(int numStudents) {
-        Random r = new Random();
+    private void placeStudents(int numStudents, Random r) {
         int row;
         int col;
+        reachableCells = new boolean[numRows][numCols];
+        updateReachableCells(0, 0);
         for(int i=0; i<numStudents; i++) {
             //repeat until a valid placement is found
             do {
@@ -66,50 +327,20 @@ public class StudentWorldBoard extends Board {
                 col = r.nextInt(this.numCols);
             } while(!isValidPlacement(row, col));
 
-            cells[row][col].add(StudentWorldItem.STUDENT);
+            addItem(row, col, StudentWorldItem.STUDENT);
 
-            //if placement causes board to be unsolvable, undo it
-            if(!isSolveable((StudentWorldCell) getPlayerCell())) {
-                cells[row][col].remove(StudentWorldItem.STUDENT);
-                i--;
-            }
-        }
-    }
-
-    private void addPercepts() {
-        StudentWorldCell currentCell;
-        List<StudentWorldCell> adjacentCells;
-        for(int i=0; i<this.numRows; i++) {
-            for(int j=0; j<this.numCols; j++) {
-                currentCell = (StudentWorldCell) cells[i][j];
-                adjacentCells = getAdjacentCells(currentCell);
-                for(StudentWorldCell adjacentCell : adjacentCells) {
-                    for(Item item : adjacentCell.getItems()) {
-                        currentCell.addPerceptForItem(item);
-                    }
+            //a student on a cell that was already unreachable cannot change the solution
+            if(reachableCells[row][col]) {
+                updateReachableCells(row, col);
+                //if placement causes board to be unsolvable, undo it
+                if(!isSolveable()) {
+                    removeItem(row, col, StudentWorldItem.STUDENT);
+                    updateReachableCells(row, col);
+                    i--;
                 }
             }
         }
-    }
-
-    private List<StudentWorldCell> getAdjacentCells(StudentWorldCell cell) {
-        List<StudentWorldCell> adjacentCells = new ArrayList<StudentWorldCell>();
-        int row = cell.getRow();
-        int col = cell.getCol();
-
-        if(row>0) {
-            adjacentCells.add((StudentWorldCell)cells[row-1][col]);
-        }
-        if(col<numCols-1) {
-            adjacentCells.add((StudentWorldCell)cells[row][col+1]);
-        }
-        if(row<numRows-1) {
-            adjacentCells.add((StudentWorldCell)cells[row+1][col]);
-        }
-        if(col>0) {
-            adjacentCells.add((StudentWorldCell)cells[row][col-1]);
-        }
-        return adjacentCells;
+        reachableCells = null;
     }
 
     private boolean isValidPlacement(int row, int col) {
@@ -124,24 +355,46 @@ public class StudentWorldBoard extends Board {
         return true;
     }
 
-    private boolean isSolveable(StudentWorldCell playerCell) {
-        if(playerCell.getItems().contains(StudentWorldItem.DOOR)) {
-            return true;
-        } else if(playerCell.getItems().contains(StudentWorldItem.STUDENT)) {
-            return false;
-        } else {
-            int row = playerCell.getRow();
-            int col = playerCell.getCol();
-            return (row < numRows-1 && isSolveable((StudentWorldCell)cells[row+1][col])) || (col < numCols-1 && isSolveable((StudentWorldCell)cells[row][col+1]));
+    private boolean isSolveable() {
+        return reachableCells[doorRow][doorCol];
+    }
+
+    /**
+     * Recomputes which cells can be reached from the player cell by moving down and
+     * right. A cell only depends on the cells above and to its left, so a change at
+     * (fromRow, fromCol) can only affect the cells below and to the right of it.
+     */
+    private void updateReachableCells(int fromRow, int fromCol) {
+        Cell playerCell = getPlayerCell();
+        int playerRow = playerCell.getRow();
+        int playerCol = playerCell.getCol();
+        boolean reachable;
+        for(int i=fromRow; i<numRows; i++) {
+            for(int j=fromCol; j<numCols; j++) {
+                if(cells[i][j].getItems().contains(StudentWorldItem.STUDENT)) {
+                    reachable = false;
+                } else if(i == playerRow && j == playerCol) {
+                    reachable = true;
+                } else {
+                    reachable = (i > 0 && reachableCells[i-1][j]) || (j > 0 && reachableCells[i][j-1]);
+                }
+                reachableCells[i][j] = reachable;
+            }
         }
     }
 
     @Override
     public Object clone() {
         StudentWorldBoard b = new StudentWorldBoard(numRows, numCols, numStudents);
+        if(packedBoard != null) {
+            b.initializeBoard(packedBoard);
+            return b;
+        }
         for(int i=0; i<numRows; i++) {
             for(int j=0; j<numCols; j++) {
                 b.cells[i][j].addAll(this.cells[i][j].getItems());
+                b.cells[i][j].setVisited(this.cells[i][j].wasVisited());
+                ((StudentWorldCell) b.cells[i][j]).getPercepts().addAll(((StudentWorldCell) this.cells[i][j]).getPercepts());
             }
         }
         return b;
@@ -0,0 +1,67 @@
+package studentworld.grid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed set of board layouts, generated once from a seed and replayed by any
+ * number of runs, so that two versions of a player or planner can be compared
+ * on exactly the same boards.
+ */
+public class StudentWorldBoardCorpus implements StudentWorldBoardSet {
+	private List<StudentWorldBoardLayout> layouts;
+
+	public StudentWorldBoardCorpus(List<StudentWorldBoardLayout> layouts) {
+		this.layouts = Collections.unmodifiableList(new ArrayList<StudentWorldBoardLayout>(layouts));
+	}
+
+	/**
+	 * Generates numBoards boards, board i from getBoardSeed(seed, i), so any
+	 * single board of the corpus can also be generated on its own.
+	 */
+	public StudentWorldBoardCorpus(int numRows, int numCols, int numStudents, int numBoards, long seed) {
+		List<StudentWorldBoardLayout> layouts = new ArrayList<StudentWorldBoardLayout>(numBoards);
+		StudentWorldBoard board;
+		for(int i = 0; i < numBoards; i++) {
+			board = new StudentWorldBoard(numRows, numCols, numStudents);
+			board.initializeBoard(new Random(getBoardSeed(seed, i)));
+			layouts.add(new StudentWorldBoardLayout(board));
+		}
+		this.layouts = Collections.unmodifiableList(layouts);
+	}
+
+	@Override
+	public int size() {
+		return layouts.size();
+	}
+
+	public StudentWorldBoardLayout getLayout(int index) {
+		return layouts.get(index);
+	}
+
+	public List<StudentWorldBoardLayout> getLayouts() {
+		return layouts;
+	}
+
+	/**
+	 * Returns a fresh board with the layout at the given index.
+	 */
+	@Override
+	public StudentWorldBoard createBoard(int index) {
+		return layouts.get(index).createBoard();
+	}
+
+	/**
+	 * Derives the seed of the board at the given index. Consecutive seeds given
+	 * to java.util.Random produce correlated first values, so the index is mixed
+	 * in with the SplitMix64 finalizer rather than simply added.
+	 */
+	public static long getBoardSeed(long seed, long index) {
+		long z = seed + (index+1)*0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,91 @@
+package studentworld.grid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of a board: the number of rows and columns as two
+ * shorts followed by one byte of flags per cell, row by row. The flags hold the
+ * items of the cell and the percepts derived from its neighbors, so a board can
+ * be rebuilt from its bytes without generating or deriving anything.
+ *
+ * Boards of the same size always encode to the same number of bytes, which lets
+ * StudentWorldCorpusFile find any board of a file without reading the others.
+ */
+public final class StudentWorldBoardFormat {
+	public static final int STUDENT = 1;
+	public static final int DOOR = 2;
+	public static final int SMELL = 4;
+	public static final int GLOW = 8;
+
+	// the number of rows and columns as shorts, followed by the cell flags
+	public static final int RECORD_HEADER_SIZE = 4;
+
+	private StudentWorldBoardFormat() {
+	}
+
+	/**
+	 * Returns the number of bytes a board of the given size is encoded in.
+	 */
+	public static int getRecordSize(int numRows, int numCols) {
+		return RECORD_HEADER_SIZE + numRows*numCols;
+	}
+
+	public static byte[] encode(StudentWorldBoardLayout layout) {
+		ByteBuffer buffer = ByteBuffer.allocate(getRecordSize(layout.getNumRows(), layout.getNumCols()));
+		write(layout, buffer);
+		return buffer.array();
+	}
+
+	/**
+	 * Writes the layout at the current position of the buffer.
+	 */
+	public static void write(StudentWorldBoardLayout layout, ByteBuffer buffer) {
+		if(layout.getNumRows() > Short.MAX_VALUE || layout.getNumCols() > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("board is too large to encode");
+		}
+		new StudentWorldPackedBoard(layout).write(buffer);
+	}
+
+	/**
+	 * Reads the layout at the current position of the buffer, leaving the
+	 * position after it.
+	 */
+	public static StudentWorldBoardLayout readLayout(ByteBuffer buffer) {
+		int numRows = buffer.getShort();
+		int numCols = buffer.getShort();
+		int[] students = new int[numRows*numCols];
+		int numStudents = 0;
+		int door = -1;
+		int flags;
+		for(int cellNum = 0; cellNum < numRows*numCols; cellNum++) {
+			flags = buffer.get();
+			if((flags & DOOR) != 0) {
+				door = cellNum;
+			}
+			if((flags & STUDENT) != 0) {
+				students[numStudents++] = cellNum;
+			}
+		}
+		return new StudentWorldBoardLayout(numRows, numCols, door, Arrays.copyOf(students, numStudents));
+	}
+
+	/**
+	 * Builds the board at the current position of the buffer, taking the
+	 * percepts from the stored flags, and leaves the position after it.
+	 */
+	public static StudentWorldBoard readBoard(ByteBuffer buffer) {
+		int numRows = buffer.getShort();
+		int numCols = buffer.getShort();
+		int numStudents = 0;
+		StudentWorldBoard board;
+		for(int cellNum = 0; cellNum < numRows*numCols; cellNum++) {
+			if((buffer.get(buffer.position()+cellNum) & STUDENT) != 0) {
+				numStudents++;
+			}
+		}
+		board = new StudentWorldBoard(numRows, numCols, numStudents);
+		board.initializeBoard(buffer);
+		return board;
+	}
+}
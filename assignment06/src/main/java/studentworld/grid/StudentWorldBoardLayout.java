@@ -0,0 +1,88 @@
+package studentworld.grid;
+
+import java.util.Arrays;
+
+import studentworld.data.StudentWorldItem;
+
+/**
+ * Where the door and the students of a board are, as cell numbers
+ * row*numCols+col. The player always starts in the upper left cell, so this is
+ * all that is needed to rebuild a board.
+ */
+public class StudentWorldBoardLayout {
+	private final int numRows;
+	private final int numCols;
+	private final int doorCellNum;
+	private final int[] studentCellNums;
+
+	public StudentWorldBoardLayout(int numRows, int numCols, int doorCellNum, int[] studentCellNums) {
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.doorCellNum = doorCellNum;
+		this.studentCellNums = studentCellNums.clone();
+	}
+
+	/**
+	 * Records the layout of an initialized board.
+	 */
+	public StudentWorldBoardLayout(StudentWorldBoard board) {
+		int[] students = new int[board.getNumRows()*board.getNumCols()];
+		int numStudents = 0;
+		int door = -1;
+		this.numRows = board.getNumRows();
+		this.numCols = board.getNumCols();
+		for(int i=0; i<numRows; i++) {
+			for(int j=0; j<numCols; j++) {
+				if(board.getCell(i, j).getItems().contains(StudentWorldItem.DOOR)) {
+					door = i*numCols+j;
+				}
+				if(board.getCell(i, j).getItems().contains(StudentWorldItem.STUDENT)) {
+					students[numStudents++] = i*numCols+j;
+				}
+			}
+		}
+		this.doorCellNum = door;
+		this.studentCellNums = Arrays.copyOf(students, numStudents);
+	}
+
+	/**
+	 * Builds a new board with this layout. Every call returns a fresh board, so a
+	 * layout can be replayed by any number of games.
+	 */
+	public StudentWorldBoard createBoard() {
+		StudentWorldBoard board = new StudentWorldBoard(numRows, numCols, studentCellNums.length);
+		board.initializeBoard(this);
+		return board;
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumCols() {
+		return numCols;
+	}
+
+	public int getDoorCellNum() {
+		return doorCellNum;
+	}
+
+	public int[] getStudentCellNums() {
+		return studentCellNums.clone();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(!(o instanceof StudentWorldBoardLayout)) {
+			return false;
+		}
+		StudentWorldBoardLayout other = (StudentWorldBoardLayout) o;
+		return numRows == other.numRows && numCols == other.numCols && doorCellNum == other.doorCellNum
+				&& Arrays.equals(studentCellNums, other.studentCellNums);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31*(31*(31*numRows + numCols) + doorCellNum) + Arrays.hashCode(studentCellNums);
+	}
+}
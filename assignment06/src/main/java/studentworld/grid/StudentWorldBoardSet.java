@@ -0,0 +1,15 @@
+package studentworld.grid;
+
+/**
+ * A fixed, indexed set of boards that games can be replayed on, held in memory
+ * by StudentWorldBoardCorpus or mapped from disk by StudentWorldCorpusFile.
+ */
+public interface StudentWorldBoardSet {
+
+	public int size();
+
+	/**
+	 * Returns a fresh board for the given index; every call returns a new board.
+	 */
+	public StudentWorldBoard createBoard(int index);
+}
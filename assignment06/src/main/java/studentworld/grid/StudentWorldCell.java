@@ -37,4 +37,12 @@ public class StudentWorldCell extends Cell {
             addPercept(StudentWorldPercept.GLOW);
         }
     }
+
+    public void removePerceptForItem(Item i) {
+        if(StudentWorldItem.STUDENT.equals(i)) {
+            this.percepts.remove(StudentWorldPercept.SMELL);
+        } else if(StudentWorldItem.DOOR.equals(i)) {
+            this.percepts.remove(StudentWorldPercept.GLOW);
+        }
+    }
 }
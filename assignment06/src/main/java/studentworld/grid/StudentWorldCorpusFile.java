@@ -0,0 +1,168 @@
+package studentworld.grid;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A corpus of boards stored in a file and memory mapped, so large evaluation
+ * suites can be replayed without generating or parsing the boards. The file has
+ * a header of five ints (magic, version, number of boards, rows, columns)
+ * followed by every board in the format of StudentWorldBoardFormat. All boards
+ * of a file have the same size, so board i is found at a fixed offset and is
+ * read straight from the mapping.
+ *
+ * The mapping is never modified, so one instance can be shared by any number of
+ * threads.
+ */
+public class StudentWorldCorpusFile implements StudentWorldBoardSet {
+	private static final int MAGIC = 0x53574243;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	private MappedByteBuffer buffer;
+	private int numBoards;
+	private int numRows;
+	private int numCols;
+	private int recordSize;
+
+	/**
+	 * Maps the corpus file. The mapping stays valid after the file is closed.
+	 */
+	public StudentWorldCorpusFile(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = in.getChannel();
+			if(channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + " is not a corpus file");
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			in.close();
+		}
+		if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException(file + " is not a corpus file");
+		}
+		numBoards = buffer.getInt(8);
+		numRows = buffer.getInt(12);
+		numCols = buffer.getInt(16);
+		recordSize = StudentWorldBoardFormat.getRecordSize(numRows, numCols);
+		if(numBoards < 0 || HEADER_SIZE + (long) numBoards*recordSize != buffer.capacity()) {
+			throw new IOException(file + " is truncated");
+		}
+	}
+
+	/**
+	 * Writes the layouts to a corpus file. Every layout must have the same size.
+	 */
+	public static void write(File file, List<StudentWorldBoardLayout> layouts) throws IOException {
+		int numRows = layouts.isEmpty() ? 0 : layouts.get(0).getNumRows();
+		int numCols = layouts.isEmpty() ? 0 : layouts.get(0).getNumCols();
+		int recordSize = StudentWorldBoardFormat.getRecordSize(numRows, numCols);
+		ByteBuffer buffer = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, recordSize));
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		FileChannel channel = out.getChannel();
+
+		try {
+			out.setLength(0);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(layouts.size()).putInt(numRows).putInt(numCols);
+			for(StudentWorldBoardLayout layout : layouts) {
+				if(layout.getNumRows() != numRows || layout.getNumCols() != numCols) {
+					throw new IllegalArgumentException("every board of a corpus file must be " + numRows + "x" + numCols);
+				}
+				if(buffer.remaining() < recordSize) {
+					flush(buffer, channel);
+				}
+				StudentWorldBoardFormat.write(layout, buffer);
+			}
+			flush(buffer, channel);
+		} finally {
+			out.close();
+		}
+	}
+
+	public static void write(File file, StudentWorldBoardCorpus corpus) throws IOException {
+		write(file, corpus.getLayouts());
+	}
+
+	@Override
+	public int size() {
+		return numBoards;
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumCols() {
+		return numCols;
+	}
+
+	/**
+	 * Returns the StudentWorldBoardFormat flags of a cell of board index, read
+	 * straight from the mapping.
+	 */
+	public int getCellFlags(int index, int cellNum) {
+		return buffer.get(getOffset(index) + StudentWorldBoardFormat.RECORD_HEADER_SIZE + cellNum);
+	}
+
+	public StudentWorldBoardLayout getLayout(int index) {
+		return StudentWorldBoardFormat.readLayout(getRecord(index));
+	}
+
+	/**
+	 * Returns board index as packed flags, without building its cells.
+	 */
+	public StudentWorldPackedBoard getPackedBoard(int index) {
+		return StudentWorldPackedBoard.read(getRecord(index));
+	}
+
+	@Override
+	public StudentWorldBoard createBoard(int index) {
+		return StudentWorldBoardFormat.readBoard(getRecord(index));
+	}
+
+	/**
+	 * Loads every board into an in-memory corpus.
+	 */
+	public StudentWorldBoardCorpus toCorpus() {
+		StudentWorldBoardLayout[] layouts = new StudentWorldBoardLayout[numBoards];
+		for(int i = 0; i < numBoards; i++) {
+			layouts[i] = getLayout(i);
+		}
+		return new StudentWorldBoardCorpus(Arrays.asList(layouts));
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		// called through Buffer so the class also links on Java 8, where ByteBuffer has no override
+		((Buffer) buffer).flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		((Buffer) buffer).clear();
+	}
+
+	private int getOffset(int index) {
+		if(index < 0 || index >= numBoards) {
+			throw new IndexOutOfBoundsException("board " + index + " of " + numBoards);
+		}
+		return HEADER_SIZE + index*recordSize;
+	}
+
+	/**
+	 * Returns a view of one board. Views have their own position, so threads
+	 * reading different boards do not interfere.
+	 */
+	private ByteBuffer getRecord(int index) {
+		ByteBuffer record = buffer.duplicate();
+		((Buffer) record).position(getOffset(index));
+		return record;
+	}
+}
@@ -0,0 +1,176 @@
+package studentworld.grid;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact model of a board: one byte of flags per cell number row*numCols+col,
+ * with the items and percepts of StudentWorldBoardFormat plus whether the cell
+ * was visited, and the cell number of the player. Every lookup is a single
+ * array read, and copying a board copies one array.
+ *
+ * StudentWorldBoard keeps one of these in sync with its cells for the checks
+ * made on every turn; it can also be used on its own, e.g. to play out many
+ * boards without building their cells.
+ */
+public class StudentWorldPackedBoard {
+	public static final int VISITED = 16;
+
+	private static final int[] ROW_OFFSETS = {-1, 0, 1, 0};
+	private static final int[] COL_OFFSETS = {0, 1, 0, -1};
+
+	private int numRows;
+	private int numCols;
+	private byte[] flags;
+	private int playerCellNum;
+
+	/**
+	 * Creates a board with the player on the upper left cell and no items.
+	 */
+	public StudentWorldPackedBoard(int numRows, int numCols) {
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.flags = new byte[numRows*numCols];
+		this.playerCellNum = 0;
+		this.flags[0] = VISITED;
+	}
+
+	public StudentWorldPackedBoard(StudentWorldBoardLayout layout) {
+		this(layout.getNumRows(), layout.getNumCols());
+		addItem(layout.getDoorCellNum(), StudentWorldBoardFormat.DOOR, StudentWorldBoardFormat.GLOW);
+		for(int cellNum : layout.getStudentCellNums()) {
+			addItem(cellNum, StudentWorldBoardFormat.STUDENT, StudentWorldBoardFormat.SMELL);
+		}
+	}
+
+	private StudentWorldPackedBoard(StudentWorldPackedBoard board) {
+		this.numRows = board.numRows;
+		this.numCols = board.numCols;
+		this.flags = board.flags.clone();
+		this.playerCellNum = board.playerCellNum;
+	}
+
+	/**
+	 * Reads a board in the format of StudentWorldBoardFormat from the current
+	 * position of the buffer.
+	 */
+	public static StudentWorldPackedBoard read(ByteBuffer buffer) {
+		StudentWorldPackedBoard board = new StudentWorldPackedBoard(buffer.getShort(), buffer.getShort());
+		buffer.get(board.flags);
+		board.flags[0] |= VISITED;
+		return board;
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumCols() {
+		return numCols;
+	}
+
+	public int getCellNum(int row, int col) {
+		return row*numCols+col;
+	}
+
+	public int getFlags(int cellNum) {
+		return flags[cellNum];
+	}
+
+	public boolean hasFlag(int cellNum, int flag) {
+		return (flags[cellNum] & flag) != 0;
+	}
+
+	public boolean isVisited(int cellNum) {
+		return (flags[cellNum] & VISITED) != 0;
+	}
+
+	public int getPlayerCellNum() {
+		return playerCellNum;
+	}
+
+	/**
+	 * Returns the cell reached from cellNum with the move index (up, right, down,
+	 * left), or -1 if the move leaves the board.
+	 */
+	public int getNeighborCellNum(int cellNum, int move) {
+		return getNeighborCellNum(numRows, numCols, cellNum, move);
+	}
+
+	/**
+	 * Returns the cell reached from cellNum with the move index on a board of the
+	 * given size, or -1 if the move leaves the board. The planners build their
+	 * neighbor tables from this, see StudentWorldDistances.
+	 */
+	public static int getNeighborCellNum(int numRows, int numCols, int cellNum, int move) {
+		int row = cellNum/numCols + ROW_OFFSETS[move];
+		int col = cellNum%numCols + COL_OFFSETS[move];
+		if(row < 0 || row >= numRows || col < 0 || col >= numCols) {
+			return -1;
+		}
+		return row*numCols+col;
+	}
+
+	void setFlags(int cellNum, int cellFlags) {
+		flags[cellNum] = (byte) cellFlags;
+	}
+
+	/**
+	 * Moves the player to the cell and marks it visited.
+	 */
+	public void movePlayer(int cellNum) {
+		playerCellNum = cellNum;
+		flags[cellNum] |= VISITED;
+	}
+
+	public boolean didLose() {
+		return (flags[playerCellNum] & StudentWorldBoardFormat.STUDENT) != 0;
+	}
+
+	public boolean didWin() {
+		return (flags[playerCellNum] & StudentWorldBoardFormat.DOOR) != 0;
+	}
+
+	/**
+	 * Writes the board in the format of StudentWorldBoardFormat at the current
+	 * position of the buffer. The player position and visited cells are not part
+	 * of the format.
+	 */
+	public void write(ByteBuffer buffer) {
+		buffer.putShort((short) numRows);
+		buffer.putShort((short) numCols);
+		for(int cellNum = 0; cellNum < flags.length; cellNum++) {
+			buffer.put((byte) (flags[cellNum] & ~VISITED));
+		}
+	}
+
+	public StudentWorldPackedBoard copy() {
+		return new StudentWorldPackedBoard(this);
+	}
+
+	/**
+	 * Builds a full board with the cells, percepts and player of this one.
+	 */
+	public StudentWorldBoard createBoard() {
+		int numStudents = 0;
+		StudentWorldBoard board;
+		for(int cellNum = 0; cellNum < flags.length; cellNum++) {
+			if((flags[cellNum] & StudentWorldBoardFormat.STUDENT) != 0) {
+				numStudents++;
+			}
+		}
+		board = new StudentWorldBoard(numRows, numCols, numStudents);
+		board.initializeBoard(this);
+		return board;
+	}
+
+	private void addItem(int cellNum, int item, int percept) {
+		int neighbor;
+		flags[cellNum] |= item;
+		for(int move = 0; move < 4; move++) {
+			neighbor = getNeighborCellNum(cellNum, move);
+			if(neighbor >= 0) {
+				flags[neighbor] |= percept;
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package studentworld.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of non-negative values with power of two buckets, cheap
+ * enough to record into on every call of a long simulation. Bucket b holds the
+ * values in [2^(b-1), 2^b), so percentiles are reported as an upper bound that is
+ * at most twice the exact value.
+ */
+public class StudentWorldHistogram {
+	private static final int NUM_BUCKETS = 64;
+
+	private AtomicLongArray buckets;
+	private AtomicLong count;
+	private AtomicLong sum;
+	private AtomicLong max;
+
+	public StudentWorldHistogram() {
+		this.buckets = new AtomicLongArray(NUM_BUCKETS);
+		this.count = new AtomicLong();
+		this.sum = new AtomicLong();
+		this.max = new AtomicLong();
+	}
+
+	public void record(long value) {
+		long currentMax;
+		if(value < 0) {
+			value = 0;
+		}
+		buckets.incrementAndGet(NUM_BUCKETS - Long.numberOfLeadingZeros(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		do {
+			currentMax = max.get();
+		} while(value > currentMax && !max.compareAndSet(currentMax, value));
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getSum() {
+		return sum.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) sum.get() / n;
+	}
+
+	/**
+	 * Returns an upper bound of the given percentile (between 0 and 100).
+	 */
+	public long getPercentile(double percentile) {
+		long n = count.get();
+		long rank = (long) Math.ceil(n * percentile / 100);
+		long seen = 0;
+		if(n == 0) {
+			return 0;
+		}
+		for(int b = 0; b < NUM_BUCKETS; b++) {
+			seen += buckets.get(b);
+			if(seen >= rank && seen > 0) {
+				return b == 0 ? 0 : Math.min(max.get(), (1L << b) - 1);
+			}
+		}
+		return max.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d mean=%.1f p50<=%d p90<=%d p99<=%d max=%d",
+				getCount(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+	}
+}
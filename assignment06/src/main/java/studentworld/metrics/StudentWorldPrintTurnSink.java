@@ -0,0 +1,27 @@
+package studentworld.metrics;
+
+import java.io.PrintStream;
+
+/**
+ * Prints the turn metrics of every game once it is over.
+ */
+public class StudentWorldPrintTurnSink implements StudentWorldTurnSink {
+	private PrintStream out;
+
+	public StudentWorldPrintTurnSink() {
+		this(System.out);
+	}
+
+	public StudentWorldPrintTurnSink(PrintStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void phaseTimed(StudentWorldTurnPhase phase, long nanos) {
+	}
+
+	@Override
+	public void gameEnded(StudentWorldTurnMetrics metrics) {
+		metrics.dump(out);
+	}
+}
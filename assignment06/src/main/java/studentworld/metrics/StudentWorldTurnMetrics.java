@@ -0,0 +1,54 @@
+package studentworld.metrics;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Histograms of the time spent in each phase of a turn and of whole turns, in
+ * nanoseconds. A game records into its own instance unless it is given a shared
+ * one, e.g. to aggregate the games of a simulation across threads.
+ */
+public class StudentWorldTurnMetrics {
+	private Map<StudentWorldTurnPhase, StudentWorldHistogram> phaseNanos;
+	private StudentWorldHistogram turnNanos;
+
+	public StudentWorldTurnMetrics() {
+		this.phaseNanos = new EnumMap<StudentWorldTurnPhase, StudentWorldHistogram>(StudentWorldTurnPhase.class);
+		for(StudentWorldTurnPhase phase : StudentWorldTurnPhase.values()) {
+			phaseNanos.put(phase, new StudentWorldHistogram());
+		}
+		this.turnNanos = new StudentWorldHistogram();
+	}
+
+	public void record(StudentWorldTurnPhase phase, long nanos) {
+		phaseNanos.get(phase).record(nanos);
+	}
+
+	public void recordTurn(long nanos) {
+		turnNanos.record(nanos);
+	}
+
+	public StudentWorldHistogram getPhaseNanos(StudentWorldTurnPhase phase) {
+		return phaseNanos.get(phase);
+	}
+
+	public StudentWorldHistogram getTurnNanos() {
+		return turnNanos;
+	}
+
+	/**
+	 * Prints one line per phase with its share of the total time.
+	 */
+	public void dump(PrintStream out) {
+		long total = 0;
+		for(StudentWorldHistogram histogram : phaseNanos.values()) {
+			total += histogram.getSum();
+		}
+		out.println("turn (ns):       " + turnNanos);
+		for(StudentWorldTurnPhase phase : StudentWorldTurnPhase.values()) {
+			out.println(String.format("%-16s %5.1f%% %s", phase.toString().toLowerCase() + " (ns):",
+					total == 0 ? 0 : 100.0*phaseNanos.get(phase).getSum()/total, phaseNanos.get(phase)));
+		}
+	}
+}
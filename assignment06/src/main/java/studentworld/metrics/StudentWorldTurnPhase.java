@@ -0,0 +1,19 @@
+package studentworld.metrics;
+
+/**
+ * The phases of a turn of StudentWorld.play, in the order they run.
+ */
+public enum StudentWorldTurnPhase {
+	// finding the player cell and queueing its percept messages
+	PERCEPTS,
+	// printing the board or state and the messages
+	DISPLAY,
+	// player.getAction
+	DECISION,
+	// board.movePlayer and the bookkeeping of the move
+	MOVE,
+	// checking whether the game was won or lost
+	GAME_OVER,
+	// handing the move to the robot, and waiting for it to finish at the end of the game
+	ACTUATION
+}
@@ -0,0 +1,18 @@
+package studentworld.metrics;
+
+/**
+ * Receives the timing of every turn phase of StudentWorld.play as it happens,
+ * and the metrics of the game once it is over.
+ */
+public interface StudentWorldTurnSink {
+
+	/**
+	 * Called after every phase; must be cheap since it runs inside the game loop.
+	 */
+	void phaseTimed(StudentWorldTurnPhase phase, long nanos);
+
+	/**
+	 * Called once the game is over with the metrics the game recorded into.
+	 */
+	void gameEnded(StudentWorldTurnMetrics metrics);
+}
@@ -0,0 +1,179 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gridgames.data.action.Action;
+import gridgames.grid.Board;
+
+/**
+ * Plans many queries against one board on a thread pool. The neighbor table of
+ * the board is built once, and the distances to a target are computed once per
+ * target and set of visited cells; every query sharing them only walks its path
+ * down the distances. The least recently used table is dropped once maxTables
+ * are cached, and a table whose computation failed is dropped right away.
+ */
+public class StudentWorldBatchPlanner {
+	public static final int DEFAULT_MAX_TABLES = 1024;
+
+	private StudentWorldDistances distances;
+	private ExecutorService executor;
+	private Map<TableKey, Future<int[]>> distanceTables;
+	private AtomicLong numDistanceTables;
+
+	/**
+	 * Creates a batch planner that runs on its own pool of the given size.
+	 */
+	public StudentWorldBatchPlanner(Board board, int numThreads) {
+		this(board, Executors.newFixedThreadPool(numThreads));
+	}
+
+	public StudentWorldBatchPlanner(Board board, ExecutorService executor) {
+		this(board, executor, DEFAULT_MAX_TABLES);
+	}
+
+	public StudentWorldBatchPlanner(Board board, ExecutorService executor, final int maxTables) {
+		this.distances = new StudentWorldDistances(board.getNumRows(), board.getNumCols());
+		this.executor = executor;
+		this.distanceTables = new LinkedHashMap<TableKey, Future<int[]>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TableKey, Future<int[]>> eldest) {
+				return size() > maxTables;
+			}
+		};
+		this.numDistanceTables = new AtomicLong();
+	}
+
+	/**
+	 * Submits the query; the future holds the shortest path, or null if the
+	 * target cannot be reached.
+	 */
+	public Future<List<Action>> submit(final StudentWorldPlanQuery query) {
+		return executor.submit(new Callable<List<Action>>() {
+			@Override
+			public List<Action> call() throws Exception {
+				return plan(query);
+			}
+		});
+	}
+
+	/**
+	 * Submits every query, returning the futures in the order of the queries.
+	 */
+	public List<Future<List<Action>>> submitAll(List<StudentWorldPlanQuery> queries) {
+		List<Future<List<Action>>> futures = new ArrayList<Future<List<Action>>>(queries.size());
+		for(StudentWorldPlanQuery query : queries) {
+			futures.add(submit(query));
+		}
+		return futures;
+	}
+
+	/**
+	 * Plans the query on the calling thread.
+	 */
+	public List<Action> plan(StudentWorldPlanQuery query) throws InterruptedException, ExecutionException {
+		int start = query.getStartRow()*distances.getNumCols()+query.getStartCol();
+		int target = query.getTargetRow()*distances.getNumCols()+query.getTargetCol();
+		return distances.getPath(start, getDistanceTable(target, query.getVisitedCellNums()));
+	}
+
+	/**
+	 * Returns the number of distance tables computed since the last clear.
+	 */
+	public long getNumDistanceTables() {
+		return numDistanceTables.get();
+	}
+
+	/**
+	 * Returns the number of distance tables currently cached.
+	 */
+	public int size() {
+		synchronized(distanceTables) {
+			return distanceTables.size();
+		}
+	}
+
+	/**
+	 * Drops the cached distance tables, e.g. once the visited cells of a batch
+	 * are not queried anymore.
+	 */
+	public void clear() {
+		synchronized(distanceTables) {
+			distanceTables.clear();
+		}
+		numDistanceTables.set(0);
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private int[] getDistanceTable(final int target, final BitSet visited) throws InterruptedException, ExecutionException {
+		TableKey key = new TableKey(target, visited);
+		Future<int[]> table;
+		FutureTask<int[]> task = null;
+		synchronized(distanceTables) {
+			table = distanceTables.get(key);
+			if(table == null) {
+				task = new FutureTask<int[]>(new Callable<int[]>() {
+					@Override
+					public int[] call() {
+						numDistanceTables.incrementAndGet();
+						return distances.getDistancesTo(target, visited);
+					}
+				});
+				distanceTables.put(key, task);
+				table = task;
+			}
+		}
+		// only the thread that adds the task computes it, the others wait for it
+		if(task != null) {
+			task.run();
+		}
+		try {
+			return table.get();
+		} catch(ExecutionException e) {
+			// later queries with the same key should try again rather than rethrow
+			synchronized(distanceTables) {
+				if(distanceTables.get(key) == table) {
+					distanceTables.remove(key);
+				}
+			}
+			throw e;
+		}
+	}
+
+	private static class TableKey {
+		private final int target;
+		private final BitSet visited;
+
+		private TableKey(int target, BitSet visited) {
+			this.target = target;
+			this.visited = visited;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31*target + visited.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof TableKey)) {
+				return false;
+			}
+			TableKey other = (TableKey) o;
+			return target == other.target && visited.equals(other.visited);
+		}
+	}
+}
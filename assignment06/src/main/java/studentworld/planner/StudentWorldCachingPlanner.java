@@ -0,0 +1,221 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import gridgames.grid.Board;
+import gridgames.grid.Cell;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Caches the paths of another planner, keyed by start cell, target cell and the
+ * set of visited cells. The least recently used path is evicted once the cache is
+ * full.
+ *
+ * When there is no exact match, the last path planned to the same target is
+ * reused from the start cell onwards if the visited cells only grew since:
+ * with the same visited cells any part of a shortest path is itself a shortest
+ * path, and with more visited cells it still is when its length equals the
+ * Manhattan distance.
+ *
+ * Both rules only hold when the wrapped planner returns paths with the fewest
+ * moves that depend on nothing but the start, the target and the visited cells.
+ * StudentWorldTurnAwarePlanner does not qualify: its paths depend on the heading
+ * of the player, and part of a fastest path need not be fastest from the
+ * heading the player has at its new start.
+ */
+public class StudentWorldCachingPlanner implements StudentWorldPathPlanner {
+	private StudentWorldPathPlanner planner;
+	private int numCols;
+	private int maxEntries;
+	private Map<Key, Entry> entries;
+	private Map<Integer, Entry> lastEntryByTarget;
+	private long numHits;
+	private long numSubPathHits;
+	private long numMisses;
+
+	public StudentWorldCachingPlanner(StudentWorldPathPlanner planner, Board board, int maxEntries) {
+		this.planner = planner;
+		this.numCols = board.getNumCols();
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+		this.lastEntryByTarget = new HashMap<Integer, Entry>();
+	}
+
+	@Override
+	public List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol) {
+		int start = getCellNum(player.getCell());
+		int target = getCellNum(targetRow, targetCol);
+		// the key keeps its own copy since the player keeps adding to its bitset
+		BitSet visited = (BitSet) player.getVisitedCellNums(numCols).clone();
+		Key key = new Key(start, target, visited);
+		List<Action> path;
+
+		synchronized(this) {
+			Entry entry = entries.get(key);
+			if(entry != null) {
+				numHits++;
+				return copy(entry.path);
+			}
+			path = getSubPath(start, target, visited);
+			if(path != null) {
+				numSubPathHits++;
+				return path;
+			}
+			numMisses++;
+		}
+
+		path = planner.getShortestPath(player, targetRow, targetCol);
+		put(key, path);
+		return copy(path);
+	}
+
+	public synchronized long getNumHits() {
+		return numHits;
+	}
+
+	public synchronized long getNumSubPathHits() {
+		return numSubPathHits;
+	}
+
+	public synchronized long getNumMisses() {
+		return numMisses;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		lastEntryByTarget.clear();
+	}
+
+	private synchronized void put(Key key, List<Action> path) {
+		Entry entry = new Entry(key, path);
+		Entry evicted;
+		entries.put(key, entry);
+		if(path != null) {
+			lastEntryByTarget.put(key.target, entry);
+		}
+		if(entries.size() > maxEntries) {
+			evicted = entries.remove(entries.keySet().iterator().next());
+			if(lastEntryByTarget.get(evicted.key.target) == evicted) {
+				lastEntryByTarget.remove(evicted.key.target);
+			}
+		}
+	}
+
+	/**
+	 * Returns the part of the last path planned to the target that starts at the
+	 * given cell, or null if it cannot be proven to be a shortest path.
+	 */
+	private List<Action> getSubPath(int start, int target, BitSet visited) {
+		Entry entry = lastEntryByTarget.get(target);
+		BitSet removedCells;
+		int startIndex = -1;
+		if(entry == null) {
+			return null;
+		}
+		for(int i = 0; i < entry.cells.length; i++) {
+			if(entry.cells[i] == start) {
+				startIndex = i;
+				break;
+			}
+		}
+		if(startIndex < 0) {
+			return null;
+		}
+		removedCells = (BitSet) entry.key.visited.clone();
+		removedCells.andNot(visited);
+		if(!removedCells.isEmpty()) {
+			return null;
+		}
+		if(!entry.key.visited.equals(visited) && entry.path.size()-startIndex != getMinNumMoves(start, target)) {
+			return null;
+		}
+		return new ArrayList<Action>(entry.path.subList(startIndex, entry.path.size()));
+	}
+
+	private int getMinNumMoves(int start, int target) {
+		return Math.abs(target/numCols - start/numCols) + Math.abs(target%numCols - start%numCols);
+	}
+
+	private int getCellNum(Cell cell) {
+		return getCellNum(cell.getRow(), cell.getCol());
+	}
+
+	private int getCellNum(int row, int col) {
+		return row*numCols+col;
+	}
+
+	private static List<Action> copy(List<Action> path) {
+		return path == null ? null : new ArrayList<Action>(path);
+	}
+
+	private class Key {
+		private int start;
+		private int target;
+		private BitSet visited;
+		private int hash;
+
+		private Key(int start, int target, BitSet visited) {
+			this.start = start;
+			this.target = target;
+			this.visited = visited;
+			this.hash = 31*(31*start + target) + visited.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return start == other.start && target == other.target && visited.equals(other.visited);
+		}
+	}
+
+	private class Entry {
+		private Key key;
+		private List<Action> path;
+		//cell numbers along the path, starting with the start cell
+		private int[] cells;
+
+		private Entry(Key key, List<Action> path) {
+			this.key = key;
+			this.path = path;
+			if(path != null) {
+				this.cells = getCells(key.start, path);
+			}
+		}
+
+		private int[] getCells(int start, List<Action> path) {
+			int[] cells = new int[path.size()+1];
+			cells[0] = start;
+			for(int i = 0; i < path.size(); i++) {
+				if(MoveAction.UP.equals(path.get(i))) {
+					cells[i+1] = cells[i] - numCols;
+				} else if(MoveAction.RIGHT.equals(path.get(i))) {
+					cells[i+1] = cells[i] + 1;
+				} else if(MoveAction.DOWN.equals(path.get(i))) {
+					cells[i+1] = cells[i] + numCols;
+				} else {
+					cells[i+1] = cells[i] - 1;
+				}
+			}
+			return cells;
+		}
+	}
+}
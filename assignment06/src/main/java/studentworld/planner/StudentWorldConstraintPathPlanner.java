@@ -0,0 +1,43 @@
+package studentworld.planner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import gridgames.data.action.Action;
+import gridgames.grid.Board;
+import studentworld.StudentWorldConstraintPlanner;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Answers path queries with the Choco based StudentWorldConstraintPlanner. It is
+ * much slower than StudentWorldSearchPlanner and is meant for queries that need
+ * constraints beyond plain reachability.
+ */
+public class StudentWorldConstraintPathPlanner implements StudentWorldPathPlanner {
+	private StudentWorldConstraintPlanner planner;
+
+	public StudentWorldConstraintPathPlanner(Board board) {
+		this.planner = new StudentWorldConstraintPlanner(board);
+	}
+
+	public void setTrace(StudentWorldPlannerTrace trace) {
+		planner.setTrace(trace);
+	}
+
+	public void setMetrics(StudentWorldPlannerMetrics metrics) {
+		planner.setMetrics(metrics);
+	}
+
+	public void setTimeBudget(long time, TimeUnit unit) {
+		planner.setTimeBudget(time, unit);
+	}
+
+	public void setNodeBudget(long nodeBudget) {
+		planner.setNodeBudget(nodeBudget);
+	}
+
+	@Override
+	public List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol) {
+		return planner.plan(player, targetRow, targetCol).getActions();
+	}
+}
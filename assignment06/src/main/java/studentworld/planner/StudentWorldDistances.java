@@ -0,0 +1,145 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import studentworld.grid.StudentWorldPackedBoard;
+
+/**
+ * Breadth-first distances over the cells a player can move through. A move can
+ * only start from a visited cell and end on a visited cell or on the target, the
+ * same rule the planners use. Cells that cannot be reached are UNREACHABLE.
+ *
+ * The neighbor table is computed once per board size and never changes, so one
+ * instance can be shared by any number of threads. The other planners use it
+ * for their neighbors as well.
+ */
+public class StudentWorldDistances {
+	public static final int UNREACHABLE = -1;
+
+	// the move of each move index
+	public static final MoveAction[] MOVES = {MoveAction.UP, MoveAction.RIGHT, MoveAction.DOWN, MoveAction.LEFT};
+
+	private int numRows;
+	private int numCols;
+	//neighbor of cell c with move m at 4*c+m, -1 when the move leaves the board
+	private int[] neighbors;
+
+	public StudentWorldDistances(int numRows, int numCols) {
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.neighbors = new int[4*numRows*numCols];
+		for(int cellNum = 0; cellNum < numRows*numCols; cellNum++) {
+			for(int move = 0; move < 4; move++) {
+				neighbors[4*cellNum+move] = StudentWorldPackedBoard.getNeighborCellNum(numRows, numCols, cellNum, move);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of moves from the start cell to every cell.
+	 */
+	public int[] getDistancesFrom(int start, int target, BitSet visited) {
+		int[] distances = createDistances();
+		int[] queue = new int[distances.length];
+		int head = 0;
+		int tail = 0;
+		int cellNum;
+		int neighbor;
+
+		distances[start] = 0;
+		queue[tail++] = start;
+		while(head < tail) {
+			cellNum = queue[head++];
+			if(!visited.get(cellNum)) {
+				continue;
+			}
+			for(int move = 0; move < 4; move++) {
+				neighbor = neighbors[4*cellNum+move];
+				if(neighbor >= 0 && distances[neighbor] == UNREACHABLE && (visited.get(neighbor) || neighbor == target)) {
+					distances[neighbor] = distances[cellNum]+1;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Returns the number of moves from every cell to the target cell.
+	 */
+	public int[] getDistancesTo(int target, BitSet visited) {
+		int[] distances = createDistances();
+		int[] queue = new int[distances.length];
+		int head = 0;
+		int tail = 0;
+		int cellNum;
+		int neighbor;
+
+		distances[target] = 0;
+		queue[tail++] = target;
+		while(head < tail) {
+			cellNum = queue[head++];
+			// moves are reversed, so only visited cells can lead into the current one
+			for(int move = 0; move < 4; move++) {
+				neighbor = neighbors[4*cellNum+move];
+				if(neighbor >= 0 && distances[neighbor] == UNREACHABLE && visited.get(neighbor)) {
+					distances[neighbor] = distances[cellNum]+1;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Returns a shortest path from the start cell by following the distances
+	 * returned by getDistancesTo, or null if the target cannot be reached.
+	 */
+	public List<Action> getPath(int start, int[] targetDistances) {
+		List<Action> moveActions;
+		int cellNum = start;
+		int neighbor;
+		if(targetDistances[start] == UNREACHABLE) {
+			return null;
+		}
+		moveActions = new ArrayList<Action>(targetDistances[start]);
+		while(targetDistances[cellNum] > 0) {
+			for(int move = 0; move < 4; move++) {
+				neighbor = neighbors[4*cellNum+move];
+				if(neighbor >= 0 && targetDistances[neighbor] == targetDistances[cellNum]-1) {
+					moveActions.add(MOVES[move]);
+					cellNum = neighbor;
+					break;
+				}
+			}
+		}
+		return moveActions;
+	}
+
+	/**
+	 * Returns the cell reached from cellNum with the move index (up, right, down,
+	 * left), or -1 if the move leaves the board.
+	 */
+	public int getNeighborCellNum(int cellNum, int move) {
+		return neighbors[4*cellNum+move];
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumCols() {
+		return numCols;
+	}
+
+	private int[] createDistances() {
+		int[] distances = new int[numRows*numCols];
+		Arrays.fill(distances, UNREACHABLE);
+		return distances;
+	}
+}
@@ -0,0 +1,66 @@
+package studentworld.planner;
+
+import java.util.List;
+
+import gridgames.data.Direction;
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+
+/**
+ * Estimates how long the EV3 robot takes to execute moves. Like EV3.move, every
+ * move first turns the robot to face the direction of the move and then drives
+ * one cell forward, so a move costs the time to drive one cell plus 90 degrees
+ * of turning for every quarter turn between the heading and the move.
+ */
+public class StudentWorldExecutionCost {
+	private double moveSeconds;
+	private double quarterTurnSeconds;
+
+	/**
+	 * Speeds are those given to the EV3: linearSpeed in distance units per second
+	 * and angularSpeed in degrees per second. moveDistance is the distance the
+	 * robot drives per cell.
+	 */
+	public StudentWorldExecutionCost(double linearSpeed, double angularSpeed, double moveDistance) {
+		if(linearSpeed <= 0 || angularSpeed <= 0) {
+			throw new IllegalArgumentException("speeds must be positive");
+		}
+		this.moveSeconds = moveDistance/linearSpeed;
+		this.quarterTurnSeconds = 90/angularSpeed;
+	}
+
+	public double getMoveSeconds() {
+		return moveSeconds;
+	}
+
+	/**
+	 * Returns the time to turn from the heading to face the direction of the
+	 * move, both given as move indexes (up, right, down, left).
+	 */
+	public double getTurnSeconds(int heading, int move) {
+		int quarterTurns = (move-heading+4)%4;
+		return quarterTurns == 2 ? 2*quarterTurnSeconds : quarterTurns == 0 ? 0 : quarterTurnSeconds;
+	}
+
+	/**
+	 * Returns the time to execute the moves from the heading.
+	 */
+	public double getSeconds(Direction heading, List<Action> moves) {
+		int current = getMoveIndex(heading);
+		double seconds = 0;
+		int move;
+		for(Action action : moves) {
+			move = ((MoveAction) action).ordinal();
+			seconds += getTurnSeconds(current, move) + moveSeconds;
+			current = move;
+		}
+		return seconds;
+	}
+
+	/**
+	 * Returns the index (up, right, down, left) of the move that faces the direction.
+	 */
+	public static int getMoveIndex(Direction direction) {
+		return MoveAction.getMoveActionFromDirection(direction).ordinal();
+	}
+}
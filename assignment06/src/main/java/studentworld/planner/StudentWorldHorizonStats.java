@@ -0,0 +1,91 @@
+package studentworld.planner;
+
+/**
+ * What the constraint planner did for one horizon: the size of the model, how long
+ * it took to build and to solve, and the search statistics of the Choco solver.
+ */
+public class StudentWorldHorizonStats {
+	private final int horizon;
+	private final int numVariables;
+	private final int numConstraints;
+	private final long buildNanos;
+	private final long solveNanos;
+	private final long numNodes;
+	private final long numFails;
+	private final long numBacktracks;
+	private final boolean solved;
+
+	public StudentWorldHorizonStats(int horizon, int numVariables, int numConstraints, long buildNanos, long solveNanos,
+			long numNodes, long numFails, long numBacktracks, boolean solved) {
+		this.horizon = horizon;
+		this.numVariables = numVariables;
+		this.numConstraints = numConstraints;
+		this.buildNanos = buildNanos;
+		this.solveNanos = solveNanos;
+		this.numNodes = numNodes;
+		this.numFails = numFails;
+		this.numBacktracks = numBacktracks;
+		this.solved = solved;
+	}
+
+	/**
+	 * Number of moves in the model.
+	 */
+	public int getHorizon() {
+		return horizon;
+	}
+
+	/**
+	 * Variables in the model, including the ones reused from shorter horizons.
+	 */
+	public int getNumVariables() {
+		return numVariables;
+	}
+
+	/**
+	 * Constraints in the model, including the ones reused from shorter horizons.
+	 */
+	public int getNumConstraints() {
+		return numConstraints;
+	}
+
+	/**
+	 * Time spent creating or extending the model for this horizon.
+	 */
+	public long getBuildNanos() {
+		return buildNanos;
+	}
+
+	/**
+	 * Time spent in the solver for this horizon.
+	 */
+	public long getSolveNanos() {
+		return solveNanos;
+	}
+
+	public long getNumNodes() {
+		return numNodes;
+	}
+
+	public long getNumFails() {
+		return numFails;
+	}
+
+	public long getNumBacktracks() {
+		return numBacktracks;
+	}
+
+	/**
+	 * Whether a path with this number of moves was found.
+	 */
+	public boolean isSolved() {
+		return solved;
+	}
+
+	@Override
+	public String toString() {
+		return "horizon=" + horizon + " variables=" + numVariables + " constraints=" + numConstraints
+				+ " buildMicros=" + (buildNanos/1000) + " solveMicros=" + (solveNanos/1000)
+				+ " nodes=" + numNodes + " fails=" + numFails + " backtracks=" + numBacktracks + " solved=" + solved;
+	}
+}
@@ -0,0 +1,19 @@
+package studentworld.planner;
+
+import java.util.List;
+
+import gridgames.data.action.Action;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Plans the shortest sequence of moves that takes a player from its current cell
+ * to a target cell while only passing through cells the player has visited.
+ */
+public interface StudentWorldPathPlanner {
+
+	/**
+	 * Returns the moves from the player's current cell to the target, or null if
+	 * the target cannot be reached through visited cells.
+	 */
+	List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol);
+}
@@ -0,0 +1,59 @@
+package studentworld.planner;
+
+import java.util.BitSet;
+
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * A single path query for StudentWorldBatchPlanner: a start cell, a target cell
+ * and the visited cells numbered row*numCols+col. Queries with equal visited
+ * cells share the distance tables computed for them. Queries are immutable: the
+ * visited cells are copied when the query is created and when they are read, so
+ * neither the caller nor the batch planner can change them after the fact.
+ */
+public class StudentWorldPlanQuery {
+	private final int startRow;
+	private final int startCol;
+	private final int targetRow;
+	private final int targetCol;
+	private final BitSet visitedCellNums;
+
+	public StudentWorldPlanQuery(int startRow, int startCol, int targetRow, int targetCol, BitSet visitedCellNums) {
+		this.startRow = startRow;
+		this.startCol = startCol;
+		this.targetRow = targetRow;
+		this.targetCol = targetCol;
+		this.visitedCellNums = (BitSet) visitedCellNums.clone();
+	}
+
+	/**
+	 * Creates a query from the current cell of the player, which can keep moving
+	 * while the query is planned.
+	 */
+	public StudentWorldPlanQuery(StudentWorldPlayer player, int numCols, int targetRow, int targetCol) {
+		this(player.getCell().getRow(), player.getCell().getCol(), targetRow, targetCol, player.getVisitedCellNums(numCols));
+	}
+
+	public int getStartRow() {
+		return startRow;
+	}
+
+	public int getStartCol() {
+		return startCol;
+	}
+
+	public int getTargetRow() {
+		return targetRow;
+	}
+
+	public int getTargetCol() {
+		return targetCol;
+	}
+
+	/**
+	 * Returns a copy of the visited cells.
+	 */
+	public BitSet getVisitedCellNums() {
+		return (BitSet) visitedCellNums.clone();
+	}
+}
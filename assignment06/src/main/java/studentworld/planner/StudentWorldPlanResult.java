@@ -0,0 +1,49 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import gridgames.data.action.Action;
+
+/**
+ * The outcome of a single plan: how it ended, the moves, the cell numbers the
+ * player passes through starting with its current cell, and the statistics of
+ * the search. The moves and cells are null when no path was found.
+ */
+public class StudentWorldPlanResult {
+	private final StudentWorldPlanStatus status;
+	private final List<Action> actions;
+	private final int[] cells;
+	private final StudentWorldPlannerStats stats;
+
+	public StudentWorldPlanResult(StudentWorldPlanStatus status, List<Action> actions, int[] cells, StudentWorldPlannerStats stats) {
+		this.status = status;
+		this.actions = actions == null ? null : Collections.unmodifiableList(new ArrayList<Action>(actions));
+		this.cells = cells == null ? null : cells.clone();
+		this.stats = stats;
+	}
+
+	public StudentWorldPlanStatus getStatus() {
+		return status;
+	}
+
+	public boolean isFound() {
+		return actions != null;
+	}
+
+	/**
+	 * Returns a copy of the moves, which callers are free to change.
+	 */
+	public List<Action> getActions() {
+		return actions == null ? null : new ArrayList<Action>(actions);
+	}
+
+	public int[] getCells() {
+		return cells == null ? null : cells.clone();
+	}
+
+	public StudentWorldPlannerStats getStats() {
+		return stats;
+	}
+}
@@ -0,0 +1,16 @@
+package studentworld.planner;
+
+/**
+ * How a plan ended.
+ */
+public enum StudentWorldPlanStatus {
+	// the solver found the shortest path
+	OPTIMAL,
+	// the budget ran out before the solver found a path, so the path was walked
+	// down the breadth-first distances to the target instead
+	FALLBACK,
+	// no path goes through visited cells only
+	UNREACHABLE,
+	// the plan was cancelled through its stop flag
+	STOPPED
+}
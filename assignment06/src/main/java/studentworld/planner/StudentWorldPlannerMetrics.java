@@ -0,0 +1,111 @@
+package studentworld.planner;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import studentworld.metrics.StudentWorldHistogram;
+
+/**
+ * Aggregates the statistics of many planner calls so a long simulation can dump
+ * where planning time went. Planners on several threads can record into the same
+ * instance.
+ */
+public class StudentWorldPlannerMetrics {
+	private AtomicLong numPlans;
+	private AtomicLong numUnsolved;
+	private AtomicLong numHorizons;
+	private AtomicLong numNodes;
+	private AtomicLong numFails;
+	private AtomicLong numBacktracks;
+	private StudentWorldHistogram planMicros;
+	private StudentWorldHistogram buildMicros;
+	private StudentWorldHistogram solveMicros;
+	private StudentWorldHistogram horizonsPerPlan;
+	private StudentWorldHistogram finalHorizons;
+
+	public StudentWorldPlannerMetrics() {
+		this.numPlans = new AtomicLong();
+		this.numUnsolved = new AtomicLong();
+		this.numHorizons = new AtomicLong();
+		this.numNodes = new AtomicLong();
+		this.numFails = new AtomicLong();
+		this.numBacktracks = new AtomicLong();
+		this.planMicros = new StudentWorldHistogram();
+		this.buildMicros = new StudentWorldHistogram();
+		this.solveMicros = new StudentWorldHistogram();
+		this.horizonsPerPlan = new StudentWorldHistogram();
+		this.finalHorizons = new StudentWorldHistogram();
+	}
+
+	public void record(StudentWorldPlannerStats stats) {
+		long buildNanos = stats.getBuildNanos();
+		long solveNanos = stats.getSolveNanos();
+		numPlans.incrementAndGet();
+		if(!stats.isSolved()) {
+			numUnsolved.incrementAndGet();
+		}
+		numHorizons.addAndGet(stats.getHorizons().size());
+		numNodes.addAndGet(stats.getNumNodes());
+		numFails.addAndGet(stats.getNumFails());
+		numBacktracks.addAndGet(stats.getNumBacktracks());
+		planMicros.record((buildNanos+solveNanos)/1000);
+		buildMicros.record(buildNanos/1000);
+		solveMicros.record(solveNanos/1000);
+		horizonsPerPlan.record(stats.getHorizons().size());
+		finalHorizons.record(stats.getFinalHorizon());
+	}
+
+	public long getNumPlans() {
+		return numPlans.get();
+	}
+
+	public long getNumUnsolved() {
+		return numUnsolved.get();
+	}
+
+	public long getNumHorizons() {
+		return numHorizons.get();
+	}
+
+	public long getNumNodes() {
+		return numNodes.get();
+	}
+
+	public long getNumFails() {
+		return numFails.get();
+	}
+
+	public long getNumBacktracks() {
+		return numBacktracks.get();
+	}
+
+	public StudentWorldHistogram getPlanMicros() {
+		return planMicros;
+	}
+
+	public StudentWorldHistogram getBuildMicros() {
+		return buildMicros;
+	}
+
+	public StudentWorldHistogram getSolveMicros() {
+		return solveMicros;
+	}
+
+	public StudentWorldHistogram getHorizonsPerPlan() {
+		return horizonsPerPlan;
+	}
+
+	public StudentWorldHistogram getFinalHorizons() {
+		return finalHorizons;
+	}
+
+	public void dump(PrintStream out) {
+		out.println("plans=" + getNumPlans() + " unsolved=" + getNumUnsolved() + " horizons=" + getNumHorizons()
+				+ " nodes=" + getNumNodes() + " fails=" + getNumFails() + " backtracks=" + getNumBacktracks());
+		out.println("plan time (us):    " + planMicros);
+		out.println("build time (us):   " + buildMicros);
+		out.println("solve time (us):   " + solveMicros);
+		out.println("horizons per plan: " + horizonsPerPlan);
+		out.println("final horizon:     " + finalHorizons);
+	}
+}
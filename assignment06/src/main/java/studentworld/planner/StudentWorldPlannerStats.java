@@ -0,0 +1,84 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statistics of one call to the constraint planner, made of the statistics of
+ * every horizon it tried in order.
+ */
+public class StudentWorldPlannerStats {
+	private List<StudentWorldHorizonStats> horizons;
+
+	public StudentWorldPlannerStats() {
+		this.horizons = new ArrayList<StudentWorldHorizonStats>();
+	}
+
+	public void addHorizon(StudentWorldHorizonStats horizonStats) {
+		this.horizons.add(horizonStats);
+	}
+
+	public List<StudentWorldHorizonStats> getHorizons() {
+		return Collections.unmodifiableList(horizons);
+	}
+
+	/**
+	 * Returns the last horizon tried, which is the length of the path when one was
+	 * found, or -1 if no horizon was tried.
+	 */
+	public int getFinalHorizon() {
+		return horizons.isEmpty() ? -1 : horizons.get(horizons.size()-1).getHorizon();
+	}
+
+	public boolean isSolved() {
+		return !horizons.isEmpty() && horizons.get(horizons.size()-1).isSolved();
+	}
+
+	public long getBuildNanos() {
+		long total = 0;
+		for(StudentWorldHorizonStats horizonStats : horizons) {
+			total += horizonStats.getBuildNanos();
+		}
+		return total;
+	}
+
+	public long getSolveNanos() {
+		long total = 0;
+		for(StudentWorldHorizonStats horizonStats : horizons) {
+			total += horizonStats.getSolveNanos();
+		}
+		return total;
+	}
+
+	public long getNumNodes() {
+		long total = 0;
+		for(StudentWorldHorizonStats horizonStats : horizons) {
+			total += horizonStats.getNumNodes();
+		}
+		return total;
+	}
+
+	public long getNumFails() {
+		long total = 0;
+		for(StudentWorldHorizonStats horizonStats : horizons) {
+			total += horizonStats.getNumFails();
+		}
+		return total;
+	}
+
+	public long getNumBacktracks() {
+		long total = 0;
+		for(StudentWorldHorizonStats horizonStats : horizons) {
+			total += horizonStats.getNumBacktracks();
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		return "finalHorizon=" + getFinalHorizon() + " horizons=" + horizons.size() + " solved=" + isSolved()
+				+ " buildMicros=" + (getBuildNanos()/1000) + " solveMicros=" + (getSolveNanos()/1000)
+				+ " nodes=" + getNumNodes() + " fails=" + getNumFails() + " backtracks=" + getNumBacktracks();
+	}
+}
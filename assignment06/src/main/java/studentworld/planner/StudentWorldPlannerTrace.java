@@ -0,0 +1,14 @@
+package studentworld.planner;
+
+/**
+ * Receives what the constraint planner did for each horizon it tried. The planner
+ * records these statistics for every call anyway, so tracing costs nothing beyond
+ * the call itself.
+ */
+public interface StudentWorldPlannerTrace {
+
+	/**
+	 * Called once the solver has finished with a horizon.
+	 */
+	void horizonAttempted(StudentWorldHorizonStats horizonStats);
+}
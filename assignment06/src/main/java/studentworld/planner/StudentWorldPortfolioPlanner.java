@@ -0,0 +1,99 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import gridgames.data.action.Action;
+import gridgames.grid.Board;
+import studentworld.StudentWorldConstraintPlanner;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Races one StudentWorldConstraintPlanner per search strategy and returns the
+ * first plan found. Every planner deepens its horizon one move at a time, so the
+ * first plan is already a shortest one; the remaining planners are then stopped
+ * and their tasks cancelled, so they give their pool threads back.
+ */
+public class StudentWorldPortfolioPlanner implements StudentWorldPathPlanner {
+	private ExecutorService executor;
+	private StudentWorldConstraintPlanner[] planners;
+
+	/**
+	 * Creates a portfolio that runs on its own pool with one thread per strategy.
+	 */
+	public StudentWorldPortfolioPlanner(Board board, StudentWorldSearchStrategy... strategies) {
+		this(board, Executors.newFixedThreadPool(checkStrategies(strategies).length), strategies);
+	}
+
+	public StudentWorldPortfolioPlanner(Board board, ExecutorService executor, StudentWorldSearchStrategy... strategies) {
+		checkStrategies(strategies);
+		this.executor = executor;
+		this.planners = new StudentWorldConstraintPlanner[strategies.length];
+		for(int i = 0; i < strategies.length; i++) {
+			planners[i] = new StudentWorldConstraintPlanner(board);
+			planners[i].setSearchStrategy(strategies[i]);
+		}
+	}
+
+	@Override
+	public List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol) {
+		CompletionService<List<Action>> completionService = new ExecutorCompletionService<List<Action>>(executor);
+		List<Future<List<Action>>> futures = new ArrayList<Future<List<Action>>>();
+		AtomicBoolean stopped = new AtomicBoolean(false);
+		List<Action> path = null;
+		ExecutionException failure = null;
+
+		for(StudentWorldConstraintPlanner planner : planners) {
+			futures.add(completionService.submit(createTask(planner, player, targetRow, targetCol, stopped)));
+		}
+		try {
+			for(int i = 0; i < futures.size() && path == null; i++) {
+				try {
+					path = completionService.take().get();
+				} catch(ExecutionException e) {
+					failure = e;
+				}
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			stopped.set(true);
+			for(Future<List<Action>> future : futures) {
+				future.cancel(true);
+			}
+		}
+		if(path == null && failure != null) {
+			throw new IllegalStateException("constraint planner failed", failure.getCause());
+		}
+		return path;
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private Callable<List<Action>> createTask(final StudentWorldConstraintPlanner planner, final StudentWorldPlayer player,
+			final int targetRow, final int targetCol, final AtomicBoolean stopped) {
+		return new Callable<List<Action>>() {
+			@Override
+			public List<Action> call() {
+				return planner.plan(player, targetRow, targetCol, stopped).getActions();
+			}
+		};
+	}
+
+	private static StudentWorldSearchStrategy[] checkStrategies(StudentWorldSearchStrategy[] strategies) {
+		if(strategies.length == 0) {
+			throw new IllegalArgumentException("portfolio needs at least one search strategy");
+		}
+		return strategies;
+	}
+}
@@ -0,0 +1,24 @@
+package studentworld.planner;
+
+import java.io.PrintStream;
+
+/**
+ * Prints one line per horizon attempt as space separated key=value pairs, for
+ * debugging a planner or feeding its output to a script.
+ */
+public class StudentWorldPrintTrace implements StudentWorldPlannerTrace {
+	private PrintStream out;
+
+	public StudentWorldPrintTrace() {
+		this(System.out);
+	}
+
+	public StudentWorldPrintTrace(PrintStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void horizonAttempted(StudentWorldHorizonStats horizonStats) {
+		out.println("planner " + horizonStats);
+	}
+}
@@ -0,0 +1,85 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import gridgames.data.action.Action;
+import gridgames.grid.Board;
+import gridgames.grid.Cell;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Breadth-first search over the visited cells. Every move has the same cost, so
+ * the first time the target is reached is along a shortest path.
+ */
+public class StudentWorldSearchPlanner implements StudentWorldPathPlanner {
+	private int numRows;
+	private int numCols;
+	private StudentWorldDistances distances;
+
+	public StudentWorldSearchPlanner(Board board) {
+		this.numRows = board.getNumRows();
+		this.numCols = board.getNumCols();
+		this.distances = new StudentWorldDistances(numRows, numCols);
+	}
+
+	@Override
+	public List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol) {
+		int numCells = numRows*numCols;
+		BitSet visited = player.getVisitedCellNums(numCols);
+		int[] previous = new int[numCells];
+		int[] previousMove = new int[numCells];
+		int[] queue = new int[numCells];
+		int head = 0;
+		int tail = 0;
+		int start = getCellNum(player.getCell());
+		int target = getCellNum(targetRow, targetCol);
+		int cellNum;
+		int neighbor;
+
+		Arrays.fill(previous, -1);
+		previous[start] = start;
+		queue[tail++] = start;
+
+		while(head < tail && previous[target] < 0) {
+			cellNum = queue[head++];
+			// the target may be unvisited, but no other unvisited cell can be moved through
+			if(!visited.get(cellNum)) {
+				continue;
+			}
+			for(int move = 0; move < 4; move++) {
+				neighbor = distances.getNeighborCellNum(cellNum, move);
+				if(neighbor >= 0 && previous[neighbor] < 0 && (visited.get(neighbor) || neighbor == target)) {
+					previous[neighbor] = cellNum;
+					previousMove[neighbor] = move;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+
+		if(previous[target] < 0) {
+			return null;
+		}
+		return getMoveActions(previous, previousMove, start, target);
+	}
+
+	private List<Action> getMoveActions(int[] previous, int[] previousMove, int start, int target) {
+		List<Action> moveActions = new ArrayList<Action>();
+		for(int cellNum = target; cellNum != start; cellNum = previous[cellNum]) {
+			moveActions.add(StudentWorldDistances.MOVES[previousMove[cellNum]]);
+		}
+		Collections.reverse(moveActions);
+		return moveActions;
+	}
+
+	private int getCellNum(Cell cell) {
+		return getCellNum(cell.getRow(), cell.getCol());
+	}
+
+	private int getCellNum(int row, int col) {
+		return row*numCols+col;
+	}
+}
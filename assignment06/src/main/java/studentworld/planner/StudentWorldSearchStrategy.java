@@ -0,0 +1,48 @@
+package studentworld.planner;
+
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.variables.InputOrder;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Search strategies the constraint planner can give to the Choco solver. They
+ * only change how fast a horizon is solved, never which horizon is found.
+ */
+public enum StudentWorldSearchStrategy {
+	DEFAULT,
+	INPUT_ORDER,
+	DOM_OVER_WDEG,
+	MIN_DOM,
+	TARGET_DIRECTED;
+
+	/**
+	 * Returns the search over the player cells followed by the moves, or null to
+	 * keep the solver's default search. targetDistances holds the number of moves
+	 * from every cell to the target.
+	 */
+	@SuppressWarnings("unchecked")
+	public AbstractStrategy<IntVar> getSearch(IntVar[] playerCells, IntVar[] moves, int[] targetDistances) {
+		IntVar[] variables = new IntVar[playerCells.length+moves.length];
+		System.arraycopy(playerCells, 0, variables, 0, playerCells.length);
+		System.arraycopy(moves, 0, variables, playerCells.length, moves.length);
+
+		if(this.equals(INPUT_ORDER)) {
+			return Search.inputOrderLBSearch(variables);
+		} else if(this.equals(DOM_OVER_WDEG)) {
+			return Search.domOverWDegSearch(variables);
+		} else if(this.equals(MIN_DOM)) {
+			return Search.minDomLBSearch(variables);
+		} else if(this.equals(TARGET_DIRECTED)) {
+			// the moves follow from the cells, they are only searched in case a cell is left open
+			if(moves.length == 0) {
+				return Search.intVarSearch(new InputOrder<IntVar>(playerCells[0].getModel()), new StudentWorldTargetValueSelector(targetDistances), playerCells);
+			}
+			return Search.sequencer(
+					Search.intVarSearch(new InputOrder<IntVar>(playerCells[0].getModel()), new StudentWorldTargetValueSelector(targetDistances), playerCells),
+					Search.inputOrderLBSearch(moves));
+		} else {
+			return null;
+		}
+	}
+}
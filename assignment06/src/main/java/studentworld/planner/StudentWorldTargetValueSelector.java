@@ -0,0 +1,35 @@
+package studentworld.planner;
+
+import org.chocosolver.solver.search.strategy.selectors.values.IntValueSelector;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Selects the cell of a player cell variable that is closest to the target, so
+ * the first branch the solver tries is the one heading for the target.
+ */
+public class StudentWorldTargetValueSelector implements IntValueSelector {
+	private int[] targetDistances;
+
+	public StudentWorldTargetValueSelector(int[] targetDistances) {
+		this.targetDistances = targetDistances;
+	}
+
+	@Override
+	public int selectValue(IntVar var) {
+		int best = var.getLB();
+		int ub = var.getUB();
+		for(int cellNum = var.nextValue(best); cellNum <= ub; cellNum = var.nextValue(cellNum)) {
+			if(isCloser(cellNum, best)) {
+				best = cellNum;
+			}
+		}
+		return best;
+	}
+
+	private boolean isCloser(int cellNum, int best) {
+		if(targetDistances[cellNum] == StudentWorldDistances.UNREACHABLE) {
+			return false;
+		}
+		return targetDistances[best] == StudentWorldDistances.UNREACHABLE || targetDistances[cellNum] < targetDistances[best];
+	}
+}
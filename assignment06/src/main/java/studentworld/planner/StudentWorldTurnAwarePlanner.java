@@ -0,0 +1,115 @@
+package studentworld.planner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import gridgames.data.action.Action;
+import gridgames.grid.Board;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Plans the path the EV3 robot executes fastest rather than the one with the
+ * fewest moves. The search runs over (cell, heading) states, starting from the
+ * heading of the player, and weighs every move by the time the
+ * StudentWorldExecutionCost gives for its turn and its drive, so of two paths of
+ * the same length the one with fewer turns wins, and a longer path can win when
+ * turning is slow. Moves follow the same visited cell rule as the other planners.
+ */
+public class StudentWorldTurnAwarePlanner implements StudentWorldPathPlanner {
+	private StudentWorldExecutionCost cost;
+	private int numCols;
+	private int numStates;
+	private StudentWorldDistances distances;
+
+	public StudentWorldTurnAwarePlanner(Board board, StudentWorldExecutionCost cost) {
+		this.cost = cost;
+		this.numCols = board.getNumCols();
+		this.numStates = 4*board.getNumRows()*board.getNumCols();
+		this.distances = new StudentWorldDistances(board.getNumRows(), board.getNumCols());
+	}
+
+	@Override
+	public List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol) {
+		BitSet visited = player.getVisitedCellNums(numCols);
+		double[] seconds = new double[numStates];
+		int[] previous = new int[numStates];
+		PriorityQueue<State> queue = new PriorityQueue<State>();
+		int start = 4*(player.getCell().getRow()*numCols + player.getCell().getCol())
+				+ StudentWorldExecutionCost.getMoveIndex(player.getHeading());
+		int target = targetRow*numCols+targetCol;
+		State state;
+		int cellNum;
+		int neighbor;
+		int next;
+		double nextSeconds;
+
+		Arrays.fill(seconds, Double.POSITIVE_INFINITY);
+		Arrays.fill(previous, -1);
+		seconds[start] = 0;
+		queue.add(new State(start, 0));
+		while(!queue.isEmpty()) {
+			state = queue.poll();
+			cellNum = state.state/4;
+			if(state.seconds > seconds[state.state]) {
+				continue;
+			}
+			if(cellNum == target) {
+				return getMoveActions(previous, start, state.state);
+			}
+			if(!visited.get(cellNum)) {
+				continue;
+			}
+			for(int move = 0; move < 4; move++) {
+				neighbor = distances.getNeighborCellNum(cellNum, move);
+				if(neighbor < 0 || !(visited.get(neighbor) || neighbor == target)) {
+					continue;
+				}
+				// the robot faces the direction of its last move
+				next = 4*neighbor+move;
+				nextSeconds = state.seconds + cost.getTurnSeconds(state.state%4, move) + cost.getMoveSeconds();
+				if(nextSeconds < seconds[next]) {
+					seconds[next] = nextSeconds;
+					previous[next] = state.state;
+					queue.add(new State(next, nextSeconds));
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the estimated time the robot takes to execute the moves from the
+	 * heading of the player.
+	 */
+	public double getSeconds(StudentWorldPlayer player, List<Action> moves) {
+		return cost.getSeconds(player.getHeading(), moves);
+	}
+
+	private List<Action> getMoveActions(int[] previous, int start, int end) {
+		List<Action> moveActions = new ArrayList<Action>();
+		for(int state = end; state != start; state = previous[state]) {
+			moveActions.add(StudentWorldDistances.MOVES[state%4]);
+		}
+		Collections.reverse(moveActions);
+		return moveActions;
+	}
+
+	private static class State implements Comparable<State> {
+		private int state;
+		private double seconds;
+
+		private State(int state, double seconds) {
+			this.state = state;
+			this.seconds = seconds;
+		}
+
+		@Override
+		public int compareTo(State other) {
+			return Double.compare(seconds, other.seconds);
+		}
+	}
+}
@@ -4,17 +4,39 @@ import gridgames.data.action.Action;
 import gridgames.ev3.EV3;
 import gridgames.player.EV3Player;
 import gridgames.player.Player;
+import studentworld.ev3.StudentWorldActuator;
+import studentworld.ev3.StudentWorldEV3Actuator;
 
 public class StudentWorldEV3Player extends EV3Player {
+	private StudentWorldActuator actuator;
+	
 	public StudentWorldEV3Player(EV3 ev3, Player gamePlayer) {
+		this(ev3, gamePlayer, new StudentWorldEV3Actuator(ev3));
+	}
+	
+	/**
+	 * Executes moves through the given actuator, e.g. a StudentWorldAsyncActuator
+	 * so the next move is decided while the robot drives, or a
+	 * StudentWorldSimulatedEV3 with a null EV3 when there is no robot.
+	 */
+	public StudentWorldEV3Player(EV3 ev3, Player gamePlayer, StudentWorldActuator actuator) {
 		super(ev3, gamePlayer);
+		this.actuator = actuator;
 	}
 	
 	public void processAction(Action move, boolean turnOnly) {
-		if(turnOnly) {
-			getEv3().turn(move);
-		} else {
-			getEv3().move(move);
+		actuator.execute(move, turnOnly);
+	}
+	
+	/**
+	 * Waits until the robot has executed every move, e.g. before the game reports
+	 * its outcome.
+	 */
+	public void finishActions() {
+		try {
+			actuator.awaitIdle();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 }
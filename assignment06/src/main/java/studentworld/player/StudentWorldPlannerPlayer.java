@@ -0,0 +1,128 @@
+package studentworld.player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import gridgames.data.action.Action;
+import gridgames.display.Display;
+import gridgames.grid.Cell;
+import studentworld.StudentWorldConstraintSolver;
+import studentworld.grid.StudentWorldCell;
+import studentworld.planner.StudentWorldPathPlanner;
+
+/**
+ * Computer player that, like CSPPlayer, asks StudentWorldConstraintSolver which
+ * cells may hold the door or a student, but walks to its next target along a
+ * path from a StudentWorldPathPlanner. CSPPlayer walks greedily and can keep
+ * going back and forth between two cells, which stalls unattended simulations.
+ *
+ * The next target is the door once it is known, otherwise the closest unvisited
+ * cell next to a visited one that cannot hold a student, otherwise the closest
+ * one that might. When every reachable cell is known to hold a student the player
+ * has no move left and getAction throws an IllegalStateException.
+ */
+public class StudentWorldPlannerPlayer extends StudentWorldPlayer {
+	// the constraint solver only handles the default board
+	public static final int NUM_ROWS = 5;
+	public static final int NUM_COLS = 5;
+
+	private static final Pattern CELL_STATE = Pattern.compile("(student|door) \\((\\d+),(\\d+)\\) = (\\S+)");
+	private static final int NO_ITEM = 0;
+	private static final int ITEM = 1;
+	private static final int UNKNOWN = 2;
+
+	private int numRows;
+	private int numCols;
+	private StudentWorldPathPlanner pathPlanner;
+	private StudentWorldConstraintSolver constraintSolver;
+	private List<Action> moves;
+
+	public StudentWorldPlannerPlayer(List<Action> actions, Display display, Cell initialCell, StudentWorldPathPlanner pathPlanner) {
+		super(actions, display, initialCell);
+		this.numRows = NUM_ROWS;
+		this.numCols = NUM_COLS;
+		this.pathPlanner = pathPlanner;
+		this.constraintSolver = new StudentWorldConstraintSolver(this);
+		this.moves = new ArrayList<Action>();
+	}
+
+	@Override
+	public Action getAction() {
+		List<Action> movesToTarget;
+		addVisitedCell((StudentWorldCell) getCell());
+		if(moves.isEmpty()) {
+			movesToTarget = getMovesToTarget(constraintSolver.getBoardState());
+			if(movesToTarget == null || movesToTarget.isEmpty()) {
+				throw new IllegalStateException("no path to the door or to a cell that might be free from (" + getCell().getRow() + "," + getCell().getCol() + ")");
+			}
+			moves = movesToTarget;
+		}
+		return moves.remove(0);
+	}
+
+	private List<Action> getMovesToTarget(String boardState) {
+		int[][] students = new int[numRows][numCols];
+		int[][] doors = new int[numRows][numCols];
+		List<Action> safeMoves = null;
+		List<Action> riskyMoves = null;
+		List<Action> path;
+		Matcher matcher = CELL_STATE.matcher(boardState);
+
+		while(matcher.find()) {
+			int[][] states = "student".equals(matcher.group(1)) ? students : doors;
+			states[Integer.parseInt(matcher.group(2))][Integer.parseInt(matcher.group(3))] = getState(matcher.group(4));
+		}
+
+		for(int row = 0; row < numRows; row++) {
+			for(int col = 0; col < numCols; col++) {
+				if(doors[row][col] == ITEM) {
+					path = pathPlanner.getShortestPath(this, row, col);
+					if(path != null && !path.isEmpty()) {
+						return path;
+					}
+				}
+				if(!isOnFringe(row, col) || students[row][col] == ITEM) {
+					continue;
+				}
+				path = pathPlanner.getShortestPath(this, row, col);
+				if(path == null) {
+					continue;
+				}
+				if(students[row][col] == NO_ITEM && (safeMoves == null || path.size() < safeMoves.size())) {
+					safeMoves = path;
+				} else if(students[row][col] == UNKNOWN && (riskyMoves == null || path.size() < riskyMoves.size())) {
+					riskyMoves = path;
+				}
+			}
+		}
+		return safeMoves != null ? safeMoves : riskyMoves;
+	}
+
+	private int getState(String domain) {
+		if("0".equals(domain)) {
+			return NO_ITEM;
+		} else if("1".equals(domain)) {
+			return ITEM;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Returns whether the cell is unvisited and next to a visited cell.
+	 */
+	private boolean isOnFringe(int row, int col) {
+		if(isVisited(row, col)) {
+			return false;
+		}
+		return isVisited(row-1, col) || isVisited(row+1, col) || isVisited(row, col-1) || isVisited(row, col+1);
+	}
+
+	private boolean isVisited(int row, int col) {
+		if(row < 0 || row >= numRows || col < 0 || col >= numCols) {
+			return false;
+		}
+		return getVisitedCellNums(numCols).get(row*numCols+col);
+	}
+}
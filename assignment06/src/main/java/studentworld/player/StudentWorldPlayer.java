@@ -1,9 +1,10 @@
 package studentworld.player;
 
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
+import gridgames.data.Direction;
 import gridgames.data.action.Action;
 import gridgames.display.Display;
 import gridgames.grid.Cell;
@@ -11,21 +12,66 @@ import gridgames.player.Player;
 import studentworld.grid.StudentWorldCell;
 
 public class StudentWorldPlayer extends Player {
+	private static final int DEFAULT_NUM_ROWS = 5;
+	private static final int DEFAULT_NUM_COLS = 5;
 	
-	private Set<StudentWorldCell> visitedCells;
+	private StudentWorldVisitedCells visitedCells;
+	//the robot starts in the upper left cell facing right
+	private Direction heading = Direction.RIGHT;
 
+	/**
+	 * Creates a player for a board of any size. The visited cells start out
+	 * sized for the default 5x5 board and grow as cells outside of it are added.
+	 */
 	public StudentWorldPlayer(List<Action> actions, Display display, Cell initialCell) {
+        this(actions, display, initialCell, DEFAULT_NUM_ROWS, DEFAULT_NUM_COLS);
+    }
+
+	/**
+	 * Creates a player whose visited cells are sized for a numRows x numCols
+	 * board up front, so adding cells never has to grow them.
+	 */
+	public StudentWorldPlayer(List<Action> actions, Display display, Cell initialCell, int numRows, int numCols) {
         super(actions, display, initialCell);
-        this.visitedCells = new HashSet<StudentWorldCell>();
+        this.visitedCells = new StudentWorldVisitedCells(numRows, numCols);
     }
     
     public Set<StudentWorldCell> getVisitedCells() {
     	return this.visitedCells;
     }
     
+    /**
+     * Returns the visited cells as a bitset indexed by row*numCols+col. The bitset
+     * is live when numCols matches the board of this player, so callers must not
+     * modify it; otherwise a renumbered copy is returned.
+     */
+    public BitSet getVisitedCellNums(int numCols) {
+    	if(numCols == this.visitedCells.getNumCols()) {
+    		return this.visitedCells.getCellNums();
+    	}
+    	BitSet cellNums = new BitSet();
+    	for(StudentWorldCell visitedCell : this.visitedCells) {
+    		cellNums.set(visitedCell.getRow()*numCols + visitedCell.getCol());
+    	}
+    	return cellNums;
+    }
+    
     public void addVisitedCell(StudentWorldCell cell) {
     	this.visitedCells.add(cell);
     }
+    
+    /**
+     * Returns the direction the robot faces, which is the direction of the last
+     * move executed since the robot turns to face every move, even one that is
+     * blocked by the edge of the board.
+     */
+    public Direction getHeading() {
+    	return this.heading;
+    }
+    
+    public void setHeading(Direction heading) {
+    	this.heading = heading;
+    }
 	
 	@Override
 	public Action getAction() {
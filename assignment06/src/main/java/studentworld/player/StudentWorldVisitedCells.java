@@ -0,0 +1,143 @@
+package studentworld.player;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import studentworld.grid.StudentWorldCell;
+
+/**
+ * Set of visited cells backed by a bitset indexed by cell number (row*numCols+col),
+ * so membership tests need no hashing and planners can read the bitset directly.
+ * The given size is only a starting point: adding a cell outside of it grows
+ * the set to hold the cell and renumbers the cells already in it.
+ */
+class StudentWorldVisitedCells extends AbstractSet<StudentWorldCell> {
+	private int numRows;
+	private int numCols;
+	private BitSet cellNums;
+	private StudentWorldCell[] cells;
+
+	StudentWorldVisitedCells(int numRows, int numCols) {
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.cellNums = new BitSet(numRows*numCols);
+		this.cells = new StudentWorldCell[numRows*numCols];
+	}
+
+	BitSet getCellNums() {
+		return cellNums;
+	}
+
+	int getNumCols() {
+		return numCols;
+	}
+
+	@Override
+	public boolean add(StudentWorldCell cell) {
+		if(cell.getRow() < 0 || cell.getCol() < 0) {
+			throw new IllegalArgumentException("cell (" + cell.getRow() + ", " + cell.getCol() + ") is outside of the board");
+		}
+		if(!isOnBoard(cell)) {
+			grow(Math.max(numRows, cell.getRow()+1), Math.max(numCols, cell.getCol()+1));
+		}
+		int cellNum = getCellNum(cell);
+		boolean added = !cellNums.get(cellNum);
+		cellNums.set(cellNum);
+		cells[cellNum] = cell;
+		return added;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if(!(o instanceof StudentWorldCell)) {
+			return false;
+		}
+		StudentWorldCell cell = (StudentWorldCell) o;
+		return isOnBoard(cell) && cells[getCellNum(cell)] == cell;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if(!contains(o)) {
+			return false;
+		}
+		removeCellNum(getCellNum((StudentWorldCell) o));
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		cellNums.clear();
+		cells = new StudentWorldCell[numRows*numCols];
+	}
+
+	@Override
+	public int size() {
+		return cellNums.cardinality();
+	}
+
+	@Override
+	public Iterator<StudentWorldCell> iterator() {
+		return new Iterator<StudentWorldCell>() {
+			private int next = cellNums.nextSetBit(0);
+			private int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public StudentWorldCell next() {
+				if(next < 0) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = cellNums.nextSetBit(next+1);
+				return cells[last];
+			}
+
+			@Override
+			public void remove() {
+				if(last < 0) {
+					throw new IllegalStateException();
+				}
+				removeCellNum(last);
+				last = -1;
+			}
+		};
+	}
+
+	private void grow(int numRows, int numCols) {
+		BitSet cellNums = new BitSet(numRows*numCols);
+		StudentWorldCell[] cells = new StudentWorldCell[numRows*numCols];
+		for(int cellNum = this.cellNums.nextSetBit(0); cellNum >= 0; cellNum = this.cellNums.nextSetBit(cellNum+1)) {
+			int newCellNum = (cellNum/this.numCols)*numCols + cellNum%this.numCols;
+			cellNums.set(newCellNum);
+			cells[newCellNum] = this.cells[cellNum];
+		}
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.cellNums = cellNums;
+		this.cells = cells;
+	}
+
+	private void removeCellNum(int cellNum) {
+		cellNums.clear(cellNum);
+		cells[cellNum] = null;
+	}
+
+	private boolean isOnBoard(StudentWorldCell cell) {
+		return cell.getRow() >= 0 && cell.getRow() < numRows && cell.getCol() >= 0 && cell.getCol() < numCols;
+	}
+
+	private int getCellNum(StudentWorldCell cell) {
+		if(!isOnBoard(cell)) {
+			throw new IllegalArgumentException("cell (" + cell.getRow() + ", " + cell.getCol() + ") is outside of a "
+					+ numRows + "x" + numCols + " board");
+		}
+		return cell.getRow()*numCols + cell.getCol();
+	}
+}
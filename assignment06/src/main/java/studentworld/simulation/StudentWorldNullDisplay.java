@@ -0,0 +1,24 @@
+package studentworld.simulation;
+
+import gridgames.display.Display;
+
+/**
+ * Display that drops everything, for games that run without a console such as
+ * simulations and benchmarks.
+ */
+public class StudentWorldNullDisplay extends Display {
+
+	@Override
+	public void printState(boolean isGameOver) {
+		messages.clear();
+	}
+
+	@Override
+	public void printBoard(boolean isGameOver) {
+	}
+
+	@Override
+	public void printMessages() {
+		messages.clear();
+	}
+}
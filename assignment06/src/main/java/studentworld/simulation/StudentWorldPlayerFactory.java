@@ -0,0 +1,13 @@
+package studentworld.simulation;
+
+import gridgames.display.Display;
+import gridgames.player.Player;
+import studentworld.StudentWorld;
+
+/**
+ * Creates the player of a simulated game. Called once per game, on the thread
+ * that plays it.
+ */
+public interface StudentWorldPlayerFactory {
+	Player createPlayer(StudentWorld game, Display display);
+}
@@ -0,0 +1,161 @@
+package studentworld.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gridgames.data.action.MoveAction;
+import gridgames.display.Display;
+import gridgames.player.Player;
+import studentworld.StudentWorld;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.grid.StudentWorldBoardCorpus;
+import studentworld.grid.StudentWorldBoardSet;
+import studentworld.player.CSPPlayer;
+import studentworld.player.StudentWorldPlannerPlayer;
+
+/**
+ * Plays many StudentWorld games without any display output, spread over a pool
+ * of threads, and collects the outcome of every game into a summary.
+ */
+public class StudentWorldSimulation {
+	public static final int DEFAULT_MAX_MOVES = 1000;
+
+	/**
+	 * Creates the computer player of the console game.
+	 */
+	public static final StudentWorldPlayerFactory CSP_PLAYER = new StudentWorldPlayerFactory() {
+		@Override
+		public Player createPlayer(StudentWorld game, Display display) {
+			return new CSPPlayer(MoveAction.getAllActions(), display, game.getInitialCell());
+		}
+	};
+
+	/**
+	 * Creates a computer player that walks along the paths of the game's planner.
+	 */
+	public static final StudentWorldPlayerFactory PLANNER_PLAYER = new StudentWorldPlayerFactory() {
+		@Override
+		public Player createPlayer(StudentWorld game, Display display) {
+			return new StudentWorldPlannerPlayer(MoveAction.getAllActions(), display, game.getInitialCell(), game.getPathPlanner());
+		}
+	};
+
+	private int numRows;
+	private int numCols;
+	private int numStudents;
+	private StudentWorldPlayerFactory playerFactory;
+	private int numThreads;
+	private int maxMoves;
+	private Long seed;
+	private StudentWorldBoardSet corpus;
+
+	/**
+	 * Creates a simulation of games on boards of the given size. CSP_PLAYER and
+	 * PLANNER_PLAYER rely on StudentWorldConstraintSolver, so they only play the
+	 * default 5x5 board.
+	 */
+	public StudentWorldSimulation(int numRows, int numCols, int numStudents, StudentWorldPlayerFactory playerFactory, int numThreads) {
+		if((playerFactory == CSP_PLAYER || playerFactory == PLANNER_PLAYER)
+				&& (numRows != StudentWorldPlannerPlayer.NUM_ROWS || numCols != StudentWorldPlannerPlayer.NUM_COLS)) {
+			throw new IllegalArgumentException("the constraint solver players only play " + StudentWorldPlannerPlayer.NUM_ROWS
+					+ "x" + StudentWorldPlannerPlayer.NUM_COLS + " boards, not " + numRows + "x" + numCols);
+		}
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.numStudents = numStudents;
+		this.playerFactory = playerFactory;
+		this.numThreads = numThreads;
+		this.maxMoves = DEFAULT_MAX_MOVES;
+	}
+
+	/**
+	 * Sets the number of moves after which a game is given up as unfinished.
+	 */
+	public void setMaxMoves(int maxMoves) {
+		this.maxMoves = maxMoves;
+	}
+
+	/**
+	 * Generates the board of game i from StudentWorldBoardCorpus.getBoardSeed(seed, i),
+	 * so runs with the same seed play the same boards whatever the number of threads.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Plays game i on board i of the corpus, either a StudentWorldBoardCorpus or a
+	 * mapped StudentWorldCorpusFile, cycling through the corpus when there
+	 * are more games than boards. Takes precedence over the seed.
+	 */
+	public void setCorpus(StudentWorldBoardSet corpus) {
+		this.corpus = corpus;
+	}
+
+	public StudentWorldSimulationSummary run(final int numGames) throws InterruptedException, ExecutionException {
+		final StudentWorldSimulationSummary summary = new StudentWorldSimulationSummary();
+		final AtomicInteger nextGame = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		List<Future<?>> workers = new ArrayList<Future<?>>();
+		long start = System.nanoTime();
+
+		try {
+			// each worker keeps taking games, so the queue does not hold one task per game
+			for(int i = 0; i < numThreads; i++) {
+				workers.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						int game;
+						while((game = nextGame.getAndIncrement()) < numGames) {
+							playGame(game, summary);
+						}
+					}
+				}));
+			}
+			for(Future<?> worker : workers) {
+				worker.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		summary.setElapsedNanos(System.nanoTime()-start);
+		return summary;
+	}
+
+	private void playGame(int index, StudentWorldSimulationSummary summary) {
+		Display display = new StudentWorldNullDisplay();
+		StudentWorld game = createGame(index, display);
+		game.setTurnMetrics(summary.getTurnMetrics());
+		StudentWorldTimedPlayer player = new StudentWorldTimedPlayer(playerFactory.createPlayer(game, display),
+				summary.getDecisionNanos(), maxMoves);
+
+		try {
+			game.play(player);
+		} catch(StudentWorldTimedPlayer.MoveLimitException e) {
+			summary.recordUnfinished();
+			return;
+		} catch(RuntimeException e) {
+			summary.recordFailed(e);
+			return;
+		}
+		if(((StudentWorldBoard)game.getBoard()).didWin()) {
+			summary.recordWin(player.getNumActionsExecuted());
+		} else {
+			summary.recordLoss(player.getNumActionsExecuted());
+		}
+	}
+
+	private StudentWorld createGame(int index, Display display) {
+		if(corpus != null) {
+			return new StudentWorld(display, corpus.createBoard(index % corpus.size()));
+		} else if(seed != null) {
+			return new StudentWorld(display, numRows, numCols, numStudents, StudentWorldBoardCorpus.getBoardSeed(seed, index));
+		}
+		return new StudentWorld(display, numRows, numCols, numStudents);
+	}
+}
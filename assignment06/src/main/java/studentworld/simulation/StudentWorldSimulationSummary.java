@@ -0,0 +1,132 @@
+package studentworld.simulation;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import studentworld.metrics.StudentWorldHistogram;
+import studentworld.metrics.StudentWorldTurnMetrics;
+
+/**
+ * Outcome of a batch of simulated games. Games on several threads record into
+ * the same instance.
+ */
+public class StudentWorldSimulationSummary {
+	private AtomicLong numWins;
+	private AtomicLong numLosses;
+	private AtomicLong numUnfinished;
+	private AtomicLong numFailed;
+	private AtomicReference<RuntimeException> firstFailure;
+	private StudentWorldHistogram movesPerGame;
+	private StudentWorldHistogram decisionNanos;
+	private StudentWorldTurnMetrics turnMetrics;
+	private long elapsedNanos;
+
+	public StudentWorldSimulationSummary() {
+		this.numWins = new AtomicLong();
+		this.numLosses = new AtomicLong();
+		this.numUnfinished = new AtomicLong();
+		this.numFailed = new AtomicLong();
+		this.firstFailure = new AtomicReference<RuntimeException>();
+		this.movesPerGame = new StudentWorldHistogram();
+		this.decisionNanos = new StudentWorldHistogram();
+		this.turnMetrics = new StudentWorldTurnMetrics();
+	}
+
+	public void recordWin(int numMoves) {
+		numWins.incrementAndGet();
+		movesPerGame.record(numMoves);
+	}
+
+	public void recordLoss(int numMoves) {
+		numLosses.incrementAndGet();
+		movesPerGame.record(numMoves);
+	}
+
+	/**
+	 * Records a game that hit the move limit.
+	 */
+	public void recordUnfinished() {
+		numUnfinished.incrementAndGet();
+	}
+
+	/**
+	 * Records a game whose player threw an exception, keeping the first one.
+	 */
+	public void recordFailed(RuntimeException e) {
+		numFailed.incrementAndGet();
+		firstFailure.compareAndSet(null, e);
+	}
+
+	public long getNumGames() {
+		return getNumWins() + getNumLosses() + getNumUnfinished() + getNumFailed();
+	}
+
+	public long getNumWins() {
+		return numWins.get();
+	}
+
+	public long getNumLosses() {
+		return numLosses.get();
+	}
+
+	public long getNumUnfinished() {
+		return numUnfinished.get();
+	}
+
+	public long getNumFailed() {
+		return numFailed.get();
+	}
+
+	/**
+	 * Returns the exception of the first failed game, or null if no game failed.
+	 */
+	public RuntimeException getFirstFailure() {
+		return firstFailure.get();
+	}
+
+	/**
+	 * Moves of every won or lost game.
+	 */
+	public StudentWorldHistogram getMovesPerGame() {
+		return movesPerGame;
+	}
+
+	/**
+	 * Time the player took to choose each move.
+	 */
+	public StudentWorldHistogram getDecisionNanos() {
+		return decisionNanos;
+	}
+
+	/**
+	 * Time spent in each phase of the turns of every game.
+	 */
+	public StudentWorldTurnMetrics getTurnMetrics() {
+		return turnMetrics;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public void dump(PrintStream out) {
+		long numGames = getNumGames();
+		out.println("games=" + numGames + " wins=" + getNumWins() + " losses=" + getNumLosses()
+				+ " unfinished=" + getNumUnfinished() + " failed=" + getNumFailed()
+				+ " winRate=" + (numGames == 0 ? 0 : (double) getNumWins() / numGames));
+		out.println("moves per game:      " + movesPerGame);
+		out.println("decision time (ns):  " + decisionNanos);
+		turnMetrics.dump(out);
+		if(firstFailure.get() != null) {
+			out.print("first failure:       ");
+			firstFailure.get().printStackTrace(out);
+		}
+		out.println("elapsed (ms):        " + elapsedNanos/1000000
+				+ " games/s=" + (elapsedNanos == 0 ? 0 : numGames*1000000000L / elapsedNanos));
+	}
+}
@@ -0,0 +1,93 @@
+package studentworld.simulation;
+
+import java.util.List;
+
+import gridgames.data.action.Action;
+import gridgames.display.Display;
+import gridgames.grid.Cell;
+import gridgames.player.Player;
+import studentworld.metrics.StudentWorldHistogram;
+
+/**
+ * Wraps the player of a simulated game to time every decision, and ends games
+ * that run longer than the move limit by throwing MoveLimitException.
+ */
+public class StudentWorldTimedPlayer extends Player {
+	private Player player;
+	private StudentWorldHistogram decisionNanos;
+	private int maxMoves;
+	private int numDecisions;
+
+	public StudentWorldTimedPlayer(Player player, StudentWorldHistogram decisionNanos, int maxMoves) {
+		super(player.getDisplay());
+		this.player = player;
+		this.decisionNanos = decisionNanos;
+		this.maxMoves = maxMoves;
+	}
+
+	@Override
+	public Action getAction() {
+		long start;
+		Action action;
+		if(numDecisions >= maxMoves) {
+			throw new MoveLimitException(maxMoves);
+		}
+		start = System.nanoTime();
+		action = player.getAction();
+		decisionNanos.record(System.nanoTime()-start);
+		numDecisions++;
+		return action;
+	}
+
+	@Override
+	public Player getGamePlayer() {
+		return player.getGamePlayer();
+	}
+
+	@Override
+	public List<Action> getActions() {
+		return player.getActions();
+	}
+
+	@Override
+	public Display getDisplay() {
+		return player.getDisplay();
+	}
+
+	@Override
+	public void setDisplay(Display display) {
+		player.setDisplay(display);
+	}
+
+	@Override
+	public void incrementNumActionsExecuted() {
+		player.incrementNumActionsExecuted();
+	}
+
+	@Override
+	public int getNumActionsExecuted() {
+		return player.getNumActionsExecuted();
+	}
+
+	@Override
+	public void setCell(Cell cell) {
+		player.setCell(cell);
+	}
+
+	@Override
+	public Cell getCell() {
+		return player.getCell();
+	}
+
+	/**
+	 * Thrown when a game has used up its move limit, since StudentWorld.play only
+	 * stops once the game is won or lost.
+	 */
+	public static class MoveLimitException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public MoveLimitException(int maxMoves) {
+			super("game not over after " + maxMoves + " moves");
+		}
+	}
+}
@@ -2,12 +2,14 @@ package studentworld;
 
 import static org.junit.Assert.*;
 
-import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import org.chocosolver.solver.variables.IntVar;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -18,6 +20,13 @@ import gridgames.display.Display;
 import gridgames.grid.Cell;
 import studentworld.grid.StudentWorldBoard;
 import studentworld.grid.StudentWorldCell;
+import studentworld.planner.StudentWorldHorizonStats;
+import studentworld.planner.StudentWorldPlanResult;
+import studentworld.planner.StudentWorldPlanStatus;
+import studentworld.planner.StudentWorldPlannerFixtures;
+import studentworld.planner.StudentWorldPlannerMetrics;
+import studentworld.planner.StudentWorldPlannerStats;
+import studentworld.planner.StudentWorldPlannerTrace;
 import studentworld.player.StudentWorldPlayer;
 
 public class StudentWorldConstraintPlannerTest {
@@ -26,8 +35,6 @@ public class StudentWorldConstraintPlannerTest {
 	private StudentWorldPlayer player;
 	private StudentWorld game;
 	private StudentWorldBoard board;
-	private Field moves;
-	private Field playerCells;
 
 	@Before
 	public void setUp() throws Exception {
@@ -38,17 +45,11 @@ public class StudentWorldConstraintPlannerTest {
 		player = new StudentWorldPlayer(actions, display, initialCell);
 		game = new StudentWorld(display, 5, 5, 5);
 		board = (StudentWorldBoard)game.getBoard();
-		
-		moves = StudentWorldConstraintPlanner.class.getDeclaredField("moves");
-		moves.setAccessible(true);
-		playerCells = StudentWorldConstraintPlanner.class.getDeclaredField("playerCells");
-		playerCells.setAccessible(true);
 	}
 	
 	@Test
-	@SuppressWarnings("unchecked")
 	public void testValidPlayerCells() {
-		List<IntVar> playerCells;
+		int[] playerCells;
 		Set<Integer> possibleCellNums;
 		int cell1Num;
 		int cell2Num;
@@ -63,12 +64,12 @@ public class StudentWorldConstraintPlannerTest {
     		player.addVisitedCell((StudentWorldCell)board.getCell(1,2));
         	planner = new StudentWorldConstraintPlanner(player, 1,3);
         	planner.getShortestPath();
-			playerCells = (List<IntVar>)this.playerCells.get(planner);
+			playerCells = planner.getLastResult().getCells();
 						
-			for(int i=1; i<playerCells.size(); i++) {
+			for(int i=1; i<playerCells.length; i++) {
 				possibleCellNums = new HashSet<Integer>();
-				cell1Num = playerCells.get(i-1).getValue();
-				cell2Num = playerCells.get(i).getValue();
+				cell1Num = playerCells[i-1];
+				cell2Num = playerCells[i];
 				row1 = cell1Num/5;
 				col1 = cell1Num%5;
 				
@@ -89,9 +90,6 @@ public class StudentWorldConstraintPlannerTest {
 		} catch (IllegalArgumentException e) {
 			e.printStackTrace();
 			fail("check the console for the exception stack trace");
-		} catch (IllegalAccessException e) {
-			e.printStackTrace();
-			fail("check the console for the exception stack trace");
 		} catch (Exception e) {
 			e.printStackTrace();
 			fail("check the console for the exception stack trace");
@@ -99,10 +97,9 @@ public class StudentWorldConstraintPlannerTest {
    	}
 	
 	@Test
-	@SuppressWarnings("unchecked")
 	public void testValidMoves() {
-		List<IntVar> playerCells;
-		List<IntVar> moves;
+		int[] playerCells;
+		List<Action> moves;
 		int cell1Num;
 		int cell2Num;
 		
@@ -113,24 +110,23 @@ public class StudentWorldConstraintPlannerTest {
     		player.addVisitedCell((StudentWorldCell)board.getCell(0,3));
     		player.addVisitedCell((StudentWorldCell)board.getCell(1,2));
         	planner = new StudentWorldConstraintPlanner(player, 1,3);
-        	planner.getShortestPath();
-			playerCells = (List<IntVar>)this.playerCells.get(planner);
-			moves = (List<IntVar>)this.moves.get(planner);
+        	moves = planner.getShortestPath();
+			playerCells = planner.getLastResult().getCells();
 			
-			assertEquals("moves should contain one fewer element than playerCells", 1, playerCells.size()-moves.size());
+			assertEquals("moves should contain one fewer element than playerCells", 1, playerCells.length-moves.size());
 			
-			for(int i=1; i<playerCells.size(); i++) {
-				cell1Num = playerCells.get(i-1).getValue();
-				cell2Num = playerCells.get(i).getValue();
+			for(int i=1; i<playerCells.length; i++) {
+				cell1Num = playerCells[i-1];
+				cell2Num = playerCells[i];
 				
 				if(cell2Num == cell1Num-5) {
-					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", 0, moves.get(i-1).getValue());
+					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", MoveAction.UP, moves.get(i-1));
 				} else if(cell2Num == cell1Num+1) {
-					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", 1, moves.get(i-1).getValue());
+					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", MoveAction.RIGHT, moves.get(i-1));
 				} else if(cell2Num == cell1Num+5) {
-					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", 2, moves.get(i-1).getValue());
+					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", MoveAction.DOWN, moves.get(i-1));
 				} else if(cell2Num == cell1Num-1) {
-					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", 3, moves.get(i-1).getValue());
+					assertEquals("moves do not correspond to difference in consecutive cells in playerCells", MoveAction.LEFT, moves.get(i-1));
 				} else {
 					fail("moves do not correspond to difference in consecutive cells in playerCells");
 				}
@@ -139,9 +135,6 @@ public class StudentWorldConstraintPlannerTest {
 		} catch (IllegalArgumentException e) {
 			e.printStackTrace();
 			fail("check the console for the exception stack trace");
-		} catch (IllegalAccessException e) {
-			e.printStackTrace();
-			fail("check the console for the exception stack trace");
 		} catch (Exception e) {
 			e.printStackTrace();
 			fail("check the console for the exception stack trace");
@@ -165,6 +158,14 @@ public class StudentWorldConstraintPlannerTest {
 		assertEquals("planner not returning the correct action", MoveAction.RIGHT, moveActions.get(0));
 	}
 	
+	@Test
+	public void testTargetIsCurrentCell() {
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,0));
+		planner = new StudentWorldConstraintPlanner(player, 0,0);
+		assertTrue("planner should return no actions when the player is on the target", planner.getShortestPath().isEmpty());
+		assertEquals("result should be optimal", StudentWorldPlanStatus.OPTIMAL, planner.getLastResult().getStatus());
+	}
+	
 	@Test
 	public void testMultipleMovesWithExtraVisited() {
 		List<Action> moveActions;
@@ -213,4 +214,176 @@ public class StudentWorldConstraintPlannerTest {
 		assertEquals("planner not returning the correct actions (eighth is incorrect)", MoveAction.LEFT, moveActions.get(7));
 		assertEquals("planner not returning the correct actions (ninth is incorrect)", MoveAction.UP, moveActions.get(8));
 	}
+	
+	@Test
+	public void testTableAndReifiedEncodingsAgree() {
+		List<Action> tableActions;
+		List<Action> reifiedActions;
+		
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,0));
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,1));
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,2));
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,3));
+		player.addVisitedCell((StudentWorldCell)board.getCell(1,3));
+		player.addVisitedCell((StudentWorldCell)board.getCell(2,3));
+		player.addVisitedCell((StudentWorldCell)board.getCell(3,3));
+		player.addVisitedCell((StudentWorldCell)board.getCell(3,2));
+		player.addVisitedCell((StudentWorldCell)board.getCell(3,1));
+		planner = new StudentWorldConstraintPlanner(player, 2,1);
+		assertTrue("planner should use the table encoding by default", planner.usesTableEncoding());
+		tableActions = planner.getShortestPath();
+		
+		planner = new StudentWorldConstraintPlanner(player, 2,1);
+		planner.setUseTableEncoding(false);
+		reifiedActions = planner.getShortestPath();
+		
+		assertEquals("table and reified encodings should find the same path", reifiedActions, tableActions);
+	}
+	
+	@Test
+	public void testLargeBoard() {
+		List<Action> moveActions;
+		StudentWorldBoard largeBoard = new StudentWorldBoard(20, 20, 0);
+		StudentWorldPlayer largePlayer = new StudentWorldPlayer(MoveAction.getAllActions(), new ConsoleDisplay(), largeBoard.getCell(0,0), 20, 20);
+		
+		// corridor along the top row, down the right column and back along the bottom row
+		for(int i=0; i<20; i++) {
+			largePlayer.addVisitedCell((StudentWorldCell)largeBoard.getCell(0,i));
+			largePlayer.addVisitedCell((StudentWorldCell)largeBoard.getCell(i,19));
+			largePlayer.addVisitedCell((StudentWorldCell)largeBoard.getCell(19,i));
+		}
+		planner = new StudentWorldConstraintPlanner(largePlayer, largeBoard, 19,0);
+		moveActions = planner.getShortestPath();
+		
+		assertEquals("planner not returning the correct number of actions", 57, moveActions.size());
+		for(int i=0; i<19; i++) {
+			assertEquals("planner not returning the correct actions", MoveAction.RIGHT, moveActions.get(i));
+			assertEquals("planner not returning the correct actions", MoveAction.DOWN, moveActions.get(19+i));
+			assertEquals("planner not returning the correct actions", MoveAction.LEFT, moveActions.get(38+i));
+		}
+	}
+	
+	@Test
+	public void testUnsizedPlayerOnLargeBoard() {
+		List<Action> moveActions;
+		StudentWorldBoard largeBoard = new StudentWorldBoard(8, 8, 0);
+		StudentWorldPlayer largePlayer = new StudentWorldPlayer(MoveAction.getAllActions(), new ConsoleDisplay(), largeBoard.getCell(0,0));
+		
+		// corridor along the top row and down the right column
+		for(int i=0; i<8; i++) {
+			largePlayer.addVisitedCell((StudentWorldCell)largeBoard.getCell(0,i));
+			largePlayer.addVisitedCell((StudentWorldCell)largeBoard.getCell(i,7));
+		}
+		assertEquals("player should keep every visited cell", 15, largePlayer.getVisitedCells().size());
+		assertTrue("player should keep cells added before it grew", largePlayer.getVisitedCellNums(8).get(1));
+		planner = new StudentWorldConstraintPlanner(largePlayer, largeBoard, 7,7);
+		moveActions = planner.getShortestPath();
+		
+		assertEquals("planner not returning the correct number of actions", 14, moveActions.size());
+		for(int i=0; i<7; i++) {
+			assertEquals("planner not returning the correct actions", MoveAction.RIGHT, moveActions.get(i));
+			assertEquals("planner not returning the correct actions", MoveAction.DOWN, moveActions.get(7+i));
+		}
+	}
+	
+	@Test
+	public void testTraceAndStats() {
+		final List<Integer> horizons = new ArrayList<Integer>();
+		final List<Boolean> solved = new ArrayList<Boolean>();
+		StudentWorldPlannerMetrics metrics = new StudentWorldPlannerMetrics();
+		StudentWorldPlannerStats stats;
+		
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,0));
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,1));
+		player.addVisitedCell((StudentWorldCell)board.getCell(1,1));
+		player.addVisitedCell((StudentWorldCell)board.getCell(2,1));
+		player.addVisitedCell((StudentWorldCell)board.getCell(2,0));
+		planner = new StudentWorldConstraintPlanner(player, 3,0);
+		planner.setMetrics(metrics);
+		planner.setTrace(new StudentWorldPlannerTrace() {
+			@Override
+			public void horizonAttempted(StudentWorldHorizonStats horizonStats) {
+				horizons.add(horizonStats.getHorizon());
+				solved.add(horizonStats.isSolved());
+			}
+		});
+		planner.getShortestPath();
+		stats = planner.getStats();
+		
+		assertEquals("trace should report every horizon from the minimum to the solution", Arrays.asList(3, 4, 5), horizons);
+		assertEquals("trace should only report the last horizon as solved", Arrays.asList(false, false, true), solved);
+		assertEquals("stats should hold every horizon", 3, stats.getHorizons().size());
+		assertEquals("stats should end with the length of the path", 5, stats.getFinalHorizon());
+		assertTrue("stats should report the path as found", stats.isSolved());
+		assertEquals("metrics should record the call", 1, metrics.getNumPlans());
+		assertEquals("metrics should record every horizon", 3, metrics.getNumHorizons());
+	}
+	
+	@Test
+	public void testShortHorizonsFailWithoutSearch() {
+		StudentWorldPlannerFixtures.addVisitedCells(player, board, StudentWorldPlannerFixtures.CORRIDOR);
+		planner = new StudentWorldConstraintPlanner(player, 2,1);
+		assertEquals("planner not returning the correct number of actions", 9, planner.getShortestPath().size());
+		for(StudentWorldHorizonStats horizonStats : planner.getStats().getHorizons()) {
+			if(!horizonStats.isSolved()) {
+				assertEquals("horizon " + horizonStats.getHorizon() + " should fail during propagation", 0, horizonStats.getNumNodes());
+			}
+		}
+	}
+	
+	@Test
+	public void testSharedPlanner() throws Exception {
+		final StudentWorldConstraintPlanner sharedPlanner = new StudentWorldConstraintPlanner(board);
+		final List<StudentWorldPlanResult> results = Collections.synchronizedList(new ArrayList<StudentWorldPlanResult>());
+		Thread[] threads = new Thread[4];
+		StudentWorldPlannerFixtures.addVisitedCells(player, board, StudentWorldPlannerFixtures.CORRIDOR);
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					results.add(sharedPlanner.plan(player, 2,1));
+				}
+			});
+			threads[i].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertEquals("every caller should get a result", threads.length, results.size());
+		for(StudentWorldPlanResult result : results) {
+			assertEquals("shared planner not returning the correct number of actions", 9, result.getActions().size());
+			assertEquals("cells should start at the player and end at the target", 10, result.getCells().length);
+			assertEquals("cells should end at the target", 11, result.getCells()[9]);
+		}
+	}
+	
+	@Test
+	public void testUnreachableTarget() {
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,0));
+		player.addVisitedCell((StudentWorldCell)board.getCell(0,1));
+		planner = new StudentWorldConstraintPlanner(player, 2,2);
+		assertNull("planner should not find a path through unvisited cells", planner.getShortestPath());
+		assertEquals("result should say the target is unreachable", StudentWorldPlanStatus.UNREACHABLE, planner.getLastResult().getStatus());
+	}
+	
+	@Test
+	public void testBudgetFallsBack() {
+		StudentWorldPlanResult result;
+		StudentWorldPlannerFixtures.addVisitedCells(player, board, StudentWorldPlannerFixtures.CORRIDOR);
+		planner = new StudentWorldConstraintPlanner(board);
+		planner.setTimeBudget(1, TimeUnit.SECONDS);
+		assertEquals("plan within the budget should be optimal", StudentWorldPlanStatus.OPTIMAL, planner.plan(player, 2,1).getStatus());
+		
+		planner.setTimeBudget(1, TimeUnit.NANOSECONDS);
+		result = planner.plan(player, 2,1);
+		assertEquals("plan over the budget should fall back", StudentWorldPlanStatus.FALLBACK, result.getStatus());
+		assertEquals("fallback should still be a shortest path", 9, result.getActions().size());
+		assertEquals("fallback cells should end at the target", 11, result.getCells()[9]);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testSharedPlannerHasNoQuery() {
+		new StudentWorldConstraintPlanner(board).getShortestPath();
+	}
 }
@@ -0,0 +1,93 @@
+package studentworld.display;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import gridgames.grid.Cell;
+import studentworld.StudentWorld;
+import studentworld.data.StudentWorldPercept;
+import studentworld.grid.StudentWorldCell;
+import studentworld.simulation.StudentWorldSimulation;
+
+public class StudentWorldBufferedDisplayTest {
+	private static final String BORDER = "+---+---+---+---+---+";
+	private static final Pattern PLAYER_CELL = Pattern.compile("\\((\\d+),(\\d+)\\) .*P");
+
+	@Test
+	public void testRendersChangedCells() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StudentWorldBufferedDisplay display = new StudentWorldBufferedDisplay(new PrintStream(out), 1);
+		StudentWorld game = new StudentWorld(display, 5, 5, 5, 3);
+		String[] lines;
+
+		game.play(StudentWorldSimulation.PLANNER_PLAYER.createPlayer(game, display));
+		lines = out.toString().split("\n");
+		assertEquals("only the first render and the end of the game should print the board", 12, count(lines, BORDER));
+		assertTrue("every later move should print the cells it changed", count(lines, "(") > 0);
+		assertEquals("the outcome should be printed", 1, count(lines, "You made "));
+	}
+
+	@Test
+	public void testRendersAtEnd() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StudentWorldBufferedDisplay display = new StudentWorldBufferedDisplay(new PrintStream(out), StudentWorldBufferedDisplay.RENDER_AT_END);
+		StudentWorld game = new StudentWorld(display, 5, 5, 5, 3);
+		String[] lines;
+
+		game.play(StudentWorldSimulation.PLANNER_PLAYER.createPlayer(game, display));
+		lines = out.toString().split("\n");
+		assertEquals("only the end of the game should print the board", 6, count(lines, BORDER));
+		assertEquals("no cells should be printed on their own", 0, count(lines, "("));
+		assertEquals("the outcome should be printed", 1, count(lines, "You made "));
+	}
+
+	@Test
+	public void testMessagesFollowTheirCell() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StudentWorldBufferedDisplay display = new StudentWorldBufferedDisplay(new PrintStream(out), 1);
+		StudentWorld game = new StudentWorld(display, 5, 5, 5, 3);
+		Matcher matcher;
+		Cell playerCell = game.getInitialCell();
+		Set<String> expectedMessages = new HashSet<String>();
+		int numPercepts = 0;
+		int numBoards = 0;
+
+		game.play(StudentWorldSimulation.PLANNER_PLAYER.createPlayer(game, display));
+		for(String line : out.toString().split("\n")) {
+			matcher = PLAYER_CELL.matcher(line);
+			if(line.startsWith(BORDER) && numBoards++ > 6) {
+				// the board at the end of the game is only followed by the outcome
+				break;
+			} else if(matcher.matches()) {
+				playerCell = game.getBoard().getCell(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+			} else if(line.startsWith("You ")) {
+				expectedMessages.clear();
+				for(StudentWorldPercept percept : ((StudentWorldCell) playerCell).getPercepts()) {
+					expectedMessages.add(percept.getMessage());
+				}
+				assertTrue("\"" + line + "\" should be a percept of " + playerCell, expectedMessages.contains(line));
+				numPercepts++;
+			}
+		}
+		// seed 3 smells a student next to the start and sees the exit sign before reaching the door
+		assertEquals("every percept on the way should be printed", 3, numPercepts);
+	}
+
+	private int count(String[] lines, String prefix) {
+		int count = 0;
+		for(String line : lines) {
+			if(line.startsWith(prefix)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
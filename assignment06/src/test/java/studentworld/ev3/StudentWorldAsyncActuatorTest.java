@@ -0,0 +1,76 @@
+package studentworld.ev3;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import gridgames.data.Direction;
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import studentworld.StudentWorld;
+import studentworld.planner.StudentWorldExecutionCost;
+import studentworld.player.StudentWorldEV3Player;
+import studentworld.player.StudentWorldPlannerPlayer;
+import studentworld.simulation.StudentWorldNullDisplay;
+
+public class StudentWorldAsyncActuatorTest {
+
+	// the timeout only turns a hang into a failure, nothing is measured
+	@Test(timeout = 10000)
+	public void testMovesRunInOrderBehindTheCaller() throws Exception {
+		final CountDownLatch firstMoveStarted = new CountDownLatch(1);
+		final CountDownLatch robotReleased = new CountDownLatch(1);
+		final List<Action> executedMoves = Collections.synchronizedList(new ArrayList<Action>());
+		// a robot that holds its first move until released
+		StudentWorldAsyncActuator actuator = new StudentWorldAsyncActuator(new StudentWorldActuator() {
+			@Override
+			public void execute(Action move, boolean turnOnly) {
+				firstMoveStarted.countDown();
+				try {
+					robotReleased.await();
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				executedMoves.add(move);
+			}
+
+			@Override
+			public void awaitIdle() {
+			}
+		}, 8);
+		Action[] moves = {MoveAction.RIGHT, MoveAction.DOWN, MoveAction.DOWN, MoveAction.LEFT, MoveAction.UP};
+
+		// execute would never return here if it waited for the held robot
+		for(Action move : moves) {
+			actuator.execute(move, false);
+		}
+		firstMoveStarted.await();
+		assertTrue("robot should still hold its first move", executedMoves.isEmpty());
+		robotReleased.countDown();
+		actuator.awaitIdle();
+		actuator.shutdown();
+
+		assertEquals("awaitIdle should wait for every move in order", Arrays.asList(moves), executedMoves);
+	}
+
+	@Test
+	public void testSimulatedRobotFollowsGame() {
+		StudentWorldNullDisplay display = new StudentWorldNullDisplay();
+		StudentWorld game = new StudentWorld(display, 5, 5, 5, 5L);
+		StudentWorldPlannerPlayer player = new StudentWorldPlannerPlayer(MoveAction.getAllActions(), display, game.getInitialCell(), game.getPathPlanner());
+		StudentWorldSimulatedEV3 robot = new StudentWorldSimulatedEV3(new StudentWorldExecutionCost(100, 50, 100), 0, Direction.RIGHT);
+		StudentWorldAsyncActuator actuator = new StudentWorldAsyncActuator(robot, 2);
+
+		game.play(new StudentWorldEV3Player(null, player, actuator));
+		actuator.shutdown();
+
+		assertEquals("robot should execute every move of the game", player.getNumActionsExecuted(), robot.getMoves().size());
+		assertEquals("robot should face where the player is heading", player.getHeading(), robot.getHeading());
+	}
+}
@@ -0,0 +1,252 @@
+package studentworld.grid;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import gridgames.data.action.MoveAction;
+import gridgames.data.item.MoveItem;
+
+import studentworld.data.StudentWorldItem;
+import studentworld.data.StudentWorldPercept;
+
+public class StudentWorldBoardTest {
+
+	private int countItems(StudentWorldBoard board, StudentWorldItem item) {
+		int count = 0;
+		for(int i=0; i<board.getNumRows(); i++) {
+			for(int j=0; j<board.getNumCols(); j++) {
+				if(board.getCell(i, j).getItems().contains(item)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private boolean isDoorReachable(StudentWorldBoard board) {
+		boolean[][] reachable = new boolean[board.getNumRows()][board.getNumCols()];
+		for(int i=0; i<board.getNumRows(); i++) {
+			for(int j=0; j<board.getNumCols(); j++) {
+				if(board.getCell(i, j).getItems().contains(StudentWorldItem.STUDENT)) {
+					continue;
+				}
+				reachable[i][j] = (i == 0 && j == 0) || (i > 0 && reachable[i-1][j]) || (j > 0 && reachable[i][j-1]);
+				if(reachable[i][j] && board.getCell(i, j).getItems().contains(StudentWorldItem.DOOR)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void assertSameBoard(String message, StudentWorldBoard expected, StudentWorldBoard actual) {
+		assertEquals(message, expected.toString(), actual.toString());
+		for(int row = 0; row < expected.getNumRows(); row++) {
+			for(int col = 0; col < expected.getNumCols(); col++) {
+				assertEquals(message, ((StudentWorldCell)expected.getCell(row, col)).getPercepts(),
+						((StudentWorldCell)actual.getCell(row, col)).getPercepts());
+			}
+		}
+	}
+
+	@Test
+	public void testInitializeBoard() {
+		StudentWorldBoard board;
+		for(int k=0; k<100; k++) {
+			board = new StudentWorldBoard(5, 5, 5);
+			board.initializeBoard();
+			assertEquals("board should contain one door", 1, countItems(board, StudentWorldItem.DOOR));
+			assertEquals("board should contain every student", 5, countItems(board, StudentWorldItem.STUDENT));
+			assertTrue("door should be reachable by moving down and right", isDoorReachable(board));
+		}
+	}
+
+	@Test
+	public void testInitializeLargeBoard() {
+		StudentWorldBoard board = new StudentWorldBoard(50, 50, 500);
+		board.initializeBoard();
+		assertEquals("board should contain every student", 500, countItems(board, StudentWorldItem.STUDENT));
+		assertTrue("door should be reachable by moving down and right", isDoorReachable(board));
+	}
+
+	@Test
+	public void testSeededBoard() {
+		StudentWorldBoard board1 = new StudentWorldBoard(10, 10, 20);
+		StudentWorldBoard board2 = new StudentWorldBoard(10, 10, 20);
+		board1.initializeBoard(new Random(42));
+		board2.initializeBoard(new Random(42));
+		assertEquals("boards from the same seed should be identical", board1.toString(), board2.toString());
+		assertEquals("boards from the same seed should have the same layout", new StudentWorldBoardLayout(board1), new StudentWorldBoardLayout(board2));
+	}
+
+	@Test
+	public void testCorpus() {
+		StudentWorldBoardCorpus corpus = new StudentWorldBoardCorpus(5, 5, 5, 20, 7);
+		StudentWorldBoardCorpus sameCorpus = new StudentWorldBoardCorpus(5, 5, 5, 20, 7);
+		StudentWorldBoard board;
+		StudentWorldBoard replayedBoard;
+
+		assertEquals("corpus should hold every board", 20, corpus.size());
+		assertEquals("corpus from the same seed should be identical", corpus.getLayouts(), sameCorpus.getLayouts());
+		for(int i = 0; i < corpus.size(); i++) {
+			board = new StudentWorldBoard(5, 5, 5);
+			board.initializeBoard(new Random(StudentWorldBoardCorpus.getBoardSeed(7, i)));
+			replayedBoard = corpus.createBoard(i);
+			assertEquals("replayed board should match the generated one", board.toString(), replayedBoard.toString());
+			for(int row = 0; row < 5; row++) {
+				for(int col = 0; col < 5; col++) {
+					assertEquals("replayed board should have the same percepts", ((StudentWorldCell)board.getCell(row, col)).getPercepts(),
+							((StudentWorldCell)replayedBoard.getCell(row, col)).getPercepts());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBoardFormat() {
+		StudentWorldBoard board = new StudentWorldBoard(7, 9, 10);
+		StudentWorldBoardLayout layout;
+		byte[] bytes;
+
+		board.initializeBoard(new Random(3));
+		layout = new StudentWorldBoardLayout(board);
+		bytes = StudentWorldBoardFormat.encode(layout);
+		assertEquals("board should be encoded in one byte per cell after the size", StudentWorldBoardFormat.getRecordSize(7, 9), bytes.length);
+		assertEquals("decoded layout should match the encoded one", layout, StudentWorldBoardFormat.readLayout(ByteBuffer.wrap(bytes)));
+		assertSameBoard("decoded board should match the encoded one", board, StudentWorldBoardFormat.readBoard(ByteBuffer.wrap(bytes)));
+	}
+
+	@Test
+	public void testCorpusFile() throws Exception {
+		StudentWorldBoardCorpus corpus = new StudentWorldBoardCorpus(5, 5, 5, 50, 13);
+		File file = File.createTempFile("corpus", ".swb");
+		StudentWorldCorpusFile corpusFile;
+
+		file.deleteOnExit();
+		StudentWorldCorpusFile.write(file, corpus);
+		corpusFile = new StudentWorldCorpusFile(file);
+		assertEquals("file should hold every board", 50, corpusFile.size());
+		assertEquals("file should hold the layouts of the corpus", corpus.getLayouts(), corpusFile.toCorpus().getLayouts());
+		for(int i = 0; i < corpus.size(); i++) {
+			assertSameBoard("mapped board should match the corpus board", corpus.createBoard(i), corpusFile.createBoard(i));
+			assertEquals("mapped packed board should match the corpus board", corpus.createBoard(i).getPackedBoard().getFlags(12),
+					corpusFile.getPackedBoard(i).getFlags(12));
+		}
+		file.delete();
+	}
+
+	@Test
+	public void testPackedBoard() {
+		StudentWorldBoard board = new StudentWorldBoard(6, 6, 0);
+		StudentWorldPackedBoard packed;
+		StudentWorldPackedBoard copy;
+
+		board.initializeBoard(new StudentWorldBoardLayout(6, 6, 35, new int[0]));
+		packed = board.getPackedBoard();
+		assertTrue("door should be flagged", packed.hasFlag(35, StudentWorldBoardFormat.DOOR));
+		assertTrue("cells next to the door should glow", packed.hasFlag(29, StudentWorldBoardFormat.GLOW) && packed.hasFlag(34, StudentWorldBoardFormat.GLOW));
+		assertFalse("other cells should not glow", packed.hasFlag(28, StudentWorldBoardFormat.GLOW));
+		assertEquals("packed board should encode like the layout", ByteBuffer.wrap(StudentWorldBoardFormat.encode(new StudentWorldBoardLayout(board))),
+				ByteBuffer.wrap(encode(packed)));
+
+		copy = packed.copy();
+		board.movePlayer(MoveAction.RIGHT);
+		board.movePlayer(MoveAction.DOWN);
+		board.movePlayer(MoveAction.LEFT);
+		assertEquals("packed board should follow the player", 6, packed.getPlayerCellNum());
+		assertEquals("player cell should come from the packed board", board.getCell(1, 0), board.getPlayerCell());
+		assertTrue("visited cells should be flagged", packed.isVisited(1) && packed.isVisited(7));
+		assertFalse("unvisited cells should not be flagged", packed.isVisited(2));
+		assertEquals("copy should not follow the player", 0, copy.getPlayerCellNum());
+		assertFalse("game should not be won", board.didWin());
+	}
+
+	@Test
+	public void testSnapshot() {
+		StudentWorldBoard board = new StudentWorldBoard(6, 6, 0);
+		StudentWorldPackedBoard snapshot;
+		StudentWorldBoard clone;
+
+		board.initializeBoard(new StudentWorldBoardLayout(6, 6, 35, new int[0]));
+		board.movePlayer(MoveAction.RIGHT);
+		board.movePlayer(MoveAction.DOWN);
+		snapshot = board.snapshot();
+		clone = (StudentWorldBoard) board.clone();
+		board.movePlayer(MoveAction.LEFT);
+
+		assertEquals("snapshot should keep the player where it was taken", 7, snapshot.getPlayerCellNum());
+		assertFalse("snapshot should not see later moves", snapshot.isVisited(6));
+		assertEquals("clone should keep the player cell", clone.getCell(1, 1), clone.getPlayerCell());
+		assertTrue("clone should keep the visited cells", clone.getCell(0, 1).wasVisited() && !clone.getCell(1, 0).wasVisited());
+		for(StudentWorldBoard copy : new StudentWorldBoard[] {clone, snapshot.createBoard()}) {
+			assertTrue("copy should keep the items", copy.getCell(5, 5).getItems().contains(StudentWorldItem.DOOR));
+			assertEquals("copy should keep the player cell", copy.getCell(1, 1), copy.getPlayerCell());
+			for(int row = 0; row < 6; row++) {
+				for(int col = 0; col < 6; col++) {
+					assertEquals("copy should keep the percepts", ((StudentWorldCell)board.getCell(row, col)).getPercepts(),
+							((StudentWorldCell)copy.getCell(row, col)).getPercepts());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRestoreSnapshot() {
+		StudentWorldBoard board = new StudentWorldBoard(5, 5, 5);
+		StudentWorldBoard other = new StudentWorldBoard(5, 5, 5);
+		StudentWorldPackedBoard snapshot;
+
+		board.initializeBoard(new Random(1));
+		board.movePlayer(MoveAction.RIGHT);
+		snapshot = board.snapshot();
+		other.initializeBoard(new Random(2));
+		other.initializeBoard(snapshot);
+		board.movePlayer(MoveAction.LEFT);
+		board.initializeBoard(snapshot);
+
+		for(StudentWorldBoard restored : new StudentWorldBoard[] {board, other}) {
+			assertEquals("restoring should not keep earlier students", 5, countItems(restored, StudentWorldItem.STUDENT));
+			assertEquals("restoring should not keep an earlier door", 1, countItems(restored, StudentWorldItem.DOOR));
+			assertSameBoard("restored board should match the snapshot", snapshot.createBoard(), restored);
+			assertFalse("restoring should move the player back", restored.getCell(0, 0).getItems().contains(MoveItem.PLAYER));
+		}
+	}
+
+	@Test
+	public void testIncrementalPercepts() {
+		StudentWorldBoard board = new StudentWorldBoard(5, 5, 0);
+		StudentWorldPackedBoard packed;
+
+		board.initializeBoard(new StudentWorldBoardLayout(5, 5, 24, new int[0]));
+		packed = board.getPackedBoard();
+		board.addItem(2, 2, StudentWorldItem.STUDENT);
+		board.addItem(2, 4, StudentWorldItem.STUDENT);
+		assertTrue("neighbors of a student should smell", hasPercept(board, 1, 2, StudentWorldPercept.SMELL) && hasPercept(board, 2, 3, StudentWorldPercept.SMELL));
+		assertTrue("packed board should follow added students", packed.hasFlag(7, StudentWorldBoardFormat.SMELL) && packed.hasFlag(12, StudentWorldBoardFormat.STUDENT));
+
+		board.removeItem(2, 2, StudentWorldItem.STUDENT);
+		assertFalse("cells next to no student should not smell", hasPercept(board, 1, 2, StudentWorldPercept.SMELL));
+		assertTrue("cells next to another student should still smell", hasPercept(board, 2, 3, StudentWorldPercept.SMELL));
+		assertFalse("packed board should follow removed students", packed.hasFlag(7, StudentWorldBoardFormat.SMELL) || packed.hasFlag(12, StudentWorldBoardFormat.STUDENT));
+		assertTrue("door should still glow", hasPercept(board, 4, 3, StudentWorldPercept.GLOW));
+
+		board.addItem(0, 1, StudentWorldItem.STUDENT);
+		board.movePlayer(MoveAction.RIGHT);
+		assertTrue("moving onto a student should lose", board.didLose());
+	}
+
+	private boolean hasPercept(StudentWorldBoard board, int row, int col, StudentWorldPercept percept) {
+		return ((StudentWorldCell)board.getCell(row, col)).getPercepts().contains(percept);
+	}
+
+	private byte[] encode(StudentWorldPackedBoard packed) {
+		ByteBuffer buffer = ByteBuffer.allocate(StudentWorldBoardFormat.getRecordSize(packed.getNumRows(), packed.getNumCols()));
+		packed.write(buffer);
+		return buffer.array();
+	}
+}
@@ -0,0 +1,121 @@
+package studentworld.planner;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gridgames.data.action.Action;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.player.StudentWorldPlayer;
+
+public class StudentWorldBatchPlannerTest {
+
+	private StudentWorldBoard board;
+	private StudentWorldPlayer player;
+	private StudentWorldBatchPlanner planner;
+
+	@Before
+	public void setUp() {
+		board = new StudentWorldBoard(5, 5, 0);
+		player = StudentWorldPlannerFixtures.createPlayer(board, StudentWorldPlannerFixtures.CORRIDOR);
+		planner = new StudentWorldBatchPlanner(board, 4);
+	}
+
+	@After
+	public void tearDown() {
+		planner.shutdown();
+	}
+
+	@Test
+	public void testBatchMatchesSearchPlanner() throws Exception {
+		StudentWorldSearchPlanner searchPlanner = new StudentWorldSearchPlanner(board);
+		BitSet visited = (BitSet) player.getVisitedCellNums(5).clone();
+		List<StudentWorldPlanQuery> queries = new ArrayList<StudentWorldPlanQuery>();
+		List<Future<List<Action>>> paths;
+		int[][] starts = {{0,0}, {0,2}, {1,3}, {3,3}, {3,1}};
+		int[][] targets = {{2,1}, {4,3}, {0,0}};
+
+		for(int[] target : targets) {
+			for(int[] start : starts) {
+				queries.add(new StudentWorldPlanQuery(start[0], start[1], target[0], target[1], visited));
+			}
+		}
+		paths = planner.submitAll(queries);
+
+		for(int i = 0; i < queries.size(); i++) {
+			player.setCell(board.getCell(queries.get(i).getStartRow(), queries.get(i).getStartCol()));
+			assertEquals("batch path should be as long as the search planner path",
+					searchPlanner.getShortestPath(player, queries.get(i).getTargetRow(), queries.get(i).getTargetCol()).size(), paths.get(i).get().size());
+		}
+		assertEquals("distance table should be shared by every query with the same target", targets.length, planner.getNumDistanceTables());
+	}
+
+	@Test
+	public void testSharedTarget() throws Exception {
+		StudentWorldPlayer spiralPlayer = StudentWorldPlannerFixtures.createPlayer(board, StudentWorldPlannerFixtures.SPIRAL);
+		BitSet visited = spiralPlayer.getVisitedCellNums(5);
+		List<StudentWorldPlanQuery> queries = new ArrayList<StudentWorldPlanQuery>();
+		List<Future<List<Action>>> paths;
+
+		// every cell of the spiral heads for the one unvisited cell next to its end
+		for(int[] start : StudentWorldPlannerFixtures.SPIRAL) {
+			queries.add(new StudentWorldPlanQuery(start[0], start[1], 3,2, visited));
+		}
+		paths = planner.submitAll(queries);
+
+		assertEquals("path from the start should go through (4,2)", 11, paths.get(0).get().size());
+		assertEquals("path from the end of the spiral should be one move", 1, paths.get(queries.size()-1).get().size());
+		assertEquals("queries to one target should share one distance table", 1, planner.getNumDistanceTables());
+	}
+
+	@Test
+	public void testUnreachableTarget() throws Exception {
+		assertNull("batch planner should not find a path through unvisited cells",
+				planner.submit(new StudentWorldPlanQuery(player, 5, 4,4)).get());
+	}
+
+	@Test
+	public void testTablesAreBounded() throws Exception {
+		StudentWorldBatchPlanner boundedPlanner = new StudentWorldBatchPlanner(board, Executors.newSingleThreadExecutor(), 2);
+		try {
+			for(int[] target : new int[][] {{2,1}, {4,3}, {0,0}, {2,1}}) {
+				boundedPlanner.plan(new StudentWorldPlanQuery(player, 5, target[0], target[1]));
+			}
+			assertEquals("only the most recently used tables should be kept", 2, boundedPlanner.size());
+			assertEquals("an evicted table should be computed again", 4, boundedPlanner.getNumDistanceTables());
+		} finally {
+			boundedPlanner.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailedTableIsDropped() throws Exception {
+		try {
+			planner.plan(new StudentWorldPlanQuery(player, 5, 9, 9));
+			fail("a target off the board should fail");
+		} catch(ExecutionException e) {
+			assertEquals("a failed table should not stay cached", 0, planner.size());
+		}
+	}
+
+	@Test
+	public void testQueryCopiesVisitedCells() throws Exception {
+		BitSet visited = (BitSet) player.getVisitedCellNums(5).clone();
+		StudentWorldPlanQuery query = new StudentWorldPlanQuery(0, 0, 2, 1, visited);
+
+		visited.clear();
+		assertNotNull("the query should keep the visited cells it was created with", planner.plan(query));
+
+		query.getVisitedCellNums().clear();
+		assertNotNull("the query should not hand out its own visited cells", planner.plan(query));
+	}
+}
@@ -0,0 +1,106 @@
+package studentworld.planner;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gridgames.data.action.Action;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.grid.StudentWorldCell;
+import studentworld.player.StudentWorldPlayer;
+
+public class StudentWorldCachingPlannerTest {
+
+	private StudentWorldBoard board;
+	private StudentWorldPlayer player;
+	private StudentWorldCachingPlanner planner;
+	private int numPlans;
+
+	@Before
+	public void setUp() {
+		final StudentWorldSearchPlanner searchPlanner;
+		board = new StudentWorldBoard(5, 5, 0);
+		player = StudentWorldPlannerFixtures.createPlayer(board, StudentWorldPlannerFixtures.CORRIDOR);
+		searchPlanner = new StudentWorldSearchPlanner(board);
+		numPlans = 0;
+		planner = new StudentWorldCachingPlanner(new StudentWorldPathPlanner() {
+			@Override
+			public List<Action> getShortestPath(StudentWorldPlayer player, int targetRow, int targetCol) {
+				numPlans++;
+				return searchPlanner.getShortestPath(player, targetRow, targetCol);
+			}
+		}, board, 2);
+	}
+
+	@Test
+	public void testRepeatedQuery() {
+		List<Action> path = planner.getShortestPath(player, 2,1);
+		path.clear();
+		path = planner.getShortestPath(player, 2,1);
+
+		assertEquals("repeated query should not be planned again", 1, numPlans);
+		assertEquals("cached path should not be changed by callers", 9, path.size());
+		assertEquals("repeated query should be a hit", 1, planner.getNumHits());
+	}
+
+	@Test
+	public void testSubPathWithSameVisitedCells() {
+		List<Action> path = planner.getShortestPath(player, 2,1);
+		List<Action> subPath;
+
+		player.setCell(board.getCell(1,3));
+		subPath = planner.getShortestPath(player, 2,1);
+
+		assertEquals("query from a cell on a cached path should not be planned again", 1, numPlans);
+		assertEquals("sub path should be the end of the cached path", path.subList(4, 9), subPath);
+		assertEquals("query should be a sub path hit", 1, planner.getNumSubPathHits());
+	}
+
+	@Test
+	public void testSubPathWithMoreVisitedCells() {
+		planner.getShortestPath(player, 2,1);
+
+		// the end of the cached path has the Manhattan length
+		player.setCell(board.getCell(3,3));
+		player.addVisitedCell((StudentWorldCell)board.getCell(4,4));
+		assertEquals("shortest sub path should be reused when more cells were visited", 3, planner.getShortestPath(player, 2,1).size());
+		assertEquals("shortest sub path should be reused when more cells were visited", 1, numPlans);
+
+		// the end of the cached path is not the shortest one anymore
+		player.setCell(board.getCell(0,3));
+		player.addVisitedCell((StudentWorldCell)board.getCell(1,1));
+		player.addVisitedCell((StudentWorldCell)board.getCell(1,2));
+		assertEquals("query should be planned again when a shorter path may exist", 4, planner.getShortestPath(player, 2,1).size());
+		assertEquals("query should be planned again when a shorter path may exist", 2, numPlans);
+	}
+
+	@Test
+	public void testWalkingBack() {
+		List<Action> path;
+
+		// the player reached the end of the corridor and heads back to the start
+		player.setCell(board.getCell(3,1));
+		path = planner.getShortestPath(player, 0,0);
+		for(int[] cell : new int[][] {{3,2}, {3,3}, {2,3}, {1,3}, {0,3}, {0,2}, {0,1}}) {
+			player.setCell(board.getCell(cell[0], cell[1]));
+			path = path.subList(1, path.size());
+			assertEquals("every step back should reuse the rest of the path", path, planner.getShortestPath(player, 0,0));
+		}
+		assertEquals("walking back should be planned once", 1, numPlans);
+		assertEquals("every later step should be a sub path hit", 7, planner.getNumSubPathHits());
+	}
+
+	@Test
+	public void testEviction() {
+		planner.getShortestPath(player, 2,1);
+		planner.getShortestPath(player, 0,3);
+		planner.getShortestPath(player, 3,3);
+		planner.getShortestPath(player, 2,1);
+
+		assertEquals("cache should not grow beyond its capacity", 2, planner.size());
+		assertEquals("least recently used path should be planned again", 4, numPlans);
+	}
+}
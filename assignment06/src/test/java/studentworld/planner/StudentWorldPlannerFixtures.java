@@ -0,0 +1,45 @@
+package studentworld.planner;
+
+import gridgames.data.action.MoveAction;
+import gridgames.display.ConsoleDisplay;
+import gridgames.grid.Board;
+import studentworld.grid.StudentWorldCell;
+import studentworld.player.StudentWorldPlayer;
+
+/**
+ * Visited cells shared by the planner tests, on a 5x5 board with the player
+ * starting on the upper left cell.
+ */
+public final class StudentWorldPlannerFixtures {
+
+	/**
+	 * Cells along the top and right of the board bending back to (3,1): the
+	 * unvisited (2,1) is three cells from (0,0) but nine moves away.
+	 */
+	public static final int[][] CORRIDOR = {{0,0}, {0,1}, {0,2}, {0,3}, {1,3}, {2,3}, {3,3}, {3,2}, {3,1}};
+
+	/**
+	 * Cells spiraling inwards from (0,0) to (2,2): the unvisited (3,2) is eleven
+	 * moves away through (4,2), and seventeen through the end of the spiral.
+	 */
+	public static final int[][] SPIRAL = {{0,0}, {0,1}, {0,2}, {0,3}, {0,4}, {1,4}, {2,4}, {3,4}, {4,4},
+			{4,3}, {4,2}, {4,1}, {4,0}, {3,0}, {2,0}, {2,1}, {2,2}};
+
+	private StudentWorldPlannerFixtures() {
+	}
+
+	/**
+	 * Creates a player on the upper left cell that has visited the given cells.
+	 */
+	public static StudentWorldPlayer createPlayer(Board board, int[][] visitedCells) {
+		StudentWorldPlayer player = new StudentWorldPlayer(MoveAction.getAllActions(), new ConsoleDisplay(), board.getCell(0,0));
+		addVisitedCells(player, board, visitedCells);
+		return player;
+	}
+
+	public static void addVisitedCells(StudentWorldPlayer player, Board board, int[][] cells) {
+		for(int[] cell : cells) {
+			player.addVisitedCell((StudentWorldCell)board.getCell(cell[0], cell[1]));
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package studentworld.planner;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gridgames.data.action.Action;
+import studentworld.StudentWorldConstraintPlanner;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.player.StudentWorldPlayer;
+
+public class StudentWorldPortfolioPlannerTest {
+
+	private StudentWorldBoard board;
+	private StudentWorldPlayer player;
+	private StudentWorldPortfolioPlanner planner;
+
+	@Before
+	public void setUp() {
+		board = new StudentWorldBoard(5, 5, 0);
+		// the spiral takes every strategy through seven horizons before a path is found
+		player = StudentWorldPlannerFixtures.createPlayer(board, StudentWorldPlannerFixtures.SPIRAL);
+		planner = new StudentWorldPortfolioPlanner(board, StudentWorldSearchStrategy.values());
+	}
+
+	@After
+	public void tearDown() {
+		planner.shutdown();
+	}
+
+	@Test
+	public void testEveryStrategyFindsShortestPath() {
+		StudentWorldConstraintPlanner constraintPlanner;
+		for(StudentWorldSearchStrategy strategy : StudentWorldSearchStrategy.values()) {
+			constraintPlanner = new StudentWorldConstraintPlanner(player, board, 3,2);
+			constraintPlanner.setSearchStrategy(strategy);
+			assertEquals("strategy " + strategy + " not returning the correct number of actions", 11, constraintPlanner.getShortestPath().size());
+		}
+	}
+
+	@Test
+	public void testPortfolio() {
+		List<Action> moveActions = planner.getShortestPath(player, 3,2);
+		assertEquals("portfolio not returning the correct actions", new StudentWorldSearchPlanner(board).getShortestPath(player, 3,2), moveActions);
+		assertEquals("portfolio should be reusable", 4, planner.getShortestPath(player, 1,3).size());
+	}
+
+	@Test
+	public void testNeedsStrategy() {
+		try {
+			new StudentWorldPortfolioPlanner(board);
+			fail("a portfolio without strategies should be rejected");
+		} catch(IllegalArgumentException e) {
+			assertEquals("portfolio needs at least one search strategy", e.getMessage());
+		}
+	}
+}
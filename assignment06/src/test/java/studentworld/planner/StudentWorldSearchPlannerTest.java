@@ -0,0 +1,68 @@
+package studentworld.planner;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.player.StudentWorldPlayer;
+
+public class StudentWorldSearchPlannerTest {
+
+	private StudentWorldBoard board;
+	private StudentWorldPlayer player;
+	private StudentWorldSearchPlanner planner;
+
+	@Before
+	public void setUp() {
+		board = new StudentWorldBoard(5, 5, 0);
+		player = StudentWorldPlannerFixtures.createPlayer(board, new int[0][]);
+		planner = new StudentWorldSearchPlanner(board);
+	}
+
+	private void addVisitedCells(int[][] cells) {
+		StudentWorldPlannerFixtures.addVisitedCells(player, board, cells);
+	}
+
+	@Test
+	public void testOneMove() {
+		List<Action> moveActions;
+
+		addVisitedCells(new int[][] {{0,0}});
+		moveActions = planner.getShortestPath(player, 1,0);
+		assertEquals("planner not returning the correct number of actions", 1, moveActions.size());
+		assertEquals("planner not returning the correct action", MoveAction.DOWN, moveActions.get(0));
+
+		moveActions = planner.getShortestPath(player, 0,1);
+		assertEquals("planner not returning the correct number of actions", 1, moveActions.size());
+		assertEquals("planner not returning the correct action", MoveAction.RIGHT, moveActions.get(0));
+	}
+
+	@Test
+	public void testMoreThanMinimumMoves() {
+		List<Action> moveActions;
+
+		addVisitedCells(StudentWorldPlannerFixtures.CORRIDOR);
+		moveActions = planner.getShortestPath(player, 2,1);
+
+		assertEquals("planner not returning the correct number of actions", 9, moveActions.size());
+		assertEquals("planner not returning the correct actions", new StudentWorldConstraintPathPlanner(board).getShortestPath(player, 2,1), moveActions);
+	}
+
+	@Test
+	public void testUnreachableTarget() {
+		addVisitedCells(new int[][] {{0,0}, {0,1}});
+		assertNull("planner should not find a path through unvisited cells", planner.getShortestPath(player, 2,2));
+	}
+
+	@Test
+	public void testTargetIsCurrentCell() {
+		addVisitedCells(new int[][] {{0,0}});
+		assertTrue("planner should not move when already on the target", planner.getShortestPath(player, 0,0).isEmpty());
+	}
+}
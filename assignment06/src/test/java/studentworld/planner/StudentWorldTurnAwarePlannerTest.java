@@ -0,0 +1,59 @@
+package studentworld.planner;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gridgames.data.Direction;
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import studentworld.grid.StudentWorldBoard;
+import studentworld.player.StudentWorldPlayer;
+
+public class StudentWorldTurnAwarePlannerTest {
+
+	private StudentWorldBoard board;
+	private StudentWorldPlayer player;
+
+	@Before
+	public void setUp() {
+		board = new StudentWorldBoard(5, 5, 0);
+		player = StudentWorldPlannerFixtures.createPlayer(board, new int[0][]);
+	}
+
+	private void addVisitedCells(int[][] cells) {
+		StudentWorldPlannerFixtures.addVisitedCells(player, board, cells);
+	}
+
+	@Test
+	public void testFewestTurns() {
+		StudentWorldTurnAwarePlanner planner = new StudentWorldTurnAwarePlanner(board, new StudentWorldExecutionCost(100, 50, 100));
+		List<Action> moveActions;
+
+		addVisitedCells(new int[][] {{0,0}, {0,1}, {0,2}, {1,0}, {1,1}, {1,2}, {2,0}, {2,1}});
+		moveActions = planner.getShortestPath(player, 2, 2);
+		assertEquals("facing right, the path should turn once", Arrays.<Action>asList(MoveAction.RIGHT, MoveAction.RIGHT, MoveAction.DOWN, MoveAction.DOWN), moveActions);
+		assertEquals("path should take four moves and one quarter turn", 4*1.0 + 1.8, planner.getSeconds(player, moveActions), 1e-9);
+
+		player.setHeading(Direction.DOWN);
+		moveActions = planner.getShortestPath(player, 2, 2);
+		assertEquals("facing down, the path should turn once", Arrays.<Action>asList(MoveAction.DOWN, MoveAction.DOWN, MoveAction.RIGHT, MoveAction.RIGHT), moveActions);
+	}
+
+	@Test
+	public void testLongerPathWithFewerTurns() {
+		StudentWorldTurnAwarePlanner fastTurns = new StudentWorldTurnAwarePlanner(board, new StudentWorldExecutionCost(100, 9000, 100));
+		StudentWorldTurnAwarePlanner slowTurns = new StudentWorldTurnAwarePlanner(board, new StudentWorldExecutionCost(100, 50, 100));
+
+		// a staircase of five moves and four turns, or seven moves around it with two turns
+		addVisitedCells(new int[][] {{0,0}, {1,0}, {2,0}, {2,1}, {3,1}, {0,1}, {0,2}, {0,3}, {1,3}, {2,3}, {3,3}});
+		assertEquals("fast turns should take the staircase", 5, fastTurns.getShortestPath(player, 3, 2).size());
+		assertEquals("slow turns should go around", Arrays.<Action>asList(MoveAction.RIGHT, MoveAction.RIGHT, MoveAction.RIGHT,
+				MoveAction.DOWN, MoveAction.DOWN, MoveAction.DOWN, MoveAction.LEFT), slowTurns.getShortestPath(player, 3, 2));
+		assertNull("unreachable target should have no path", slowTurns.getShortestPath(player, 4, 4));
+	}
+}
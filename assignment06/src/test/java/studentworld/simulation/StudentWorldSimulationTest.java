@@ -0,0 +1,104 @@
+package studentworld.simulation;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gridgames.data.action.Action;
+import gridgames.data.action.MoveAction;
+import gridgames.display.Display;
+import gridgames.player.Player;
+import studentworld.StudentWorld;
+import studentworld.data.StudentWorldItem;
+import studentworld.grid.StudentWorldBoardCorpus;
+import studentworld.metrics.StudentWorldTurnPhase;
+import studentworld.player.StudentWorldPlayer;
+
+public class StudentWorldSimulationTest {
+
+	@Test
+	public void testPlannerPlayer() throws Exception {
+		StudentWorldSimulation simulation = new StudentWorldSimulation(5, 5, 5, StudentWorldSimulation.PLANNER_PLAYER, 2);
+		StudentWorldSimulationSummary summary = simulation.run(20);
+
+		assertEquals("every game should be played", 20, summary.getNumGames());
+		assertEquals("every game should be won or lost", 20, summary.getNumWins()+summary.getNumLosses());
+		assertEquals("every game should record its moves", 20, summary.getMovesPerGame().getCount());
+		assertEquals("every move should record its decision time", summary.getMovesPerGame().getSum(), summary.getDecisionNanos().getCount());
+		assertEquals("every move should record a whole turn", summary.getMovesPerGame().getSum(), summary.getTurnMetrics().getTurnNanos().getCount());
+		for(StudentWorldTurnPhase phase : StudentWorldTurnPhase.values()) {
+			assertEquals("every turn should time the " + phase + " phase", summary.getMovesPerGame().getSum(), summary.getTurnMetrics().getPhaseNanos(phase).getCount());
+		}
+	}
+
+	@Test
+	public void testSeededRuns() throws Exception {
+		StudentWorldSimulation simulation = new StudentWorldSimulation(5, 5, 5, StudentWorldSimulation.PLANNER_PLAYER, 2);
+		StudentWorldSimulationSummary summary1;
+		StudentWorldSimulationSummary summary2;
+		StudentWorldSimulationSummary corpusSummary;
+
+		simulation.setSeed(11);
+		summary1 = simulation.run(20);
+		summary2 = simulation.run(20);
+		simulation.setCorpus(new StudentWorldBoardCorpus(5, 5, 5, 20, 11));
+		corpusSummary = simulation.run(20);
+
+		assertEquals("runs with the same seed should win the same games", summary1.getNumWins(), summary2.getNumWins());
+		assertEquals("runs with the same seed should make the same moves", summary1.getMovesPerGame().getSum(), summary2.getMovesPerGame().getSum());
+		assertEquals("corpus from the same seed should play the same boards", summary1.getMovesPerGame().getSum(), corpusSummary.getMovesPerGame().getSum());
+	}
+
+	@Test
+	public void testMoveLimit() throws Exception {
+		StudentWorldSimulation simulation = new StudentWorldSimulation(5, 5, 0, new StudentWorldPlayerFactory() {
+			@Override
+			public Player createPlayer(StudentWorld game, Display display) {
+				// walking back and forth next to the start never ends a game without students
+				final boolean isDoorRight = game.getBoard().getCell(0,1).getItems().contains(StudentWorldItem.DOOR);
+				return new StudentWorldPlayer(MoveAction.getAllActions(), display, game.getInitialCell()) {
+					private int numMoves;
+					
+					@Override
+					public Action getAction() {
+						boolean isReturning = numMoves++ % 2 == 1;
+						if(isDoorRight) {
+							return isReturning ? MoveAction.UP : MoveAction.DOWN;
+						}
+						return isReturning ? MoveAction.LEFT : MoveAction.RIGHT;
+					}
+				};
+			}
+		}, 1);
+		StudentWorldSimulationSummary summary;
+
+		simulation.setMaxMoves(10);
+		summary = simulation.run(3);
+		assertEquals("games over the move limit should be unfinished", 3, summary.getNumUnfinished());
+		assertEquals("each unfinished game should time the moves it made", 30, summary.getDecisionNanos().getCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPlannerPlayerNeedsDefaultBoard() {
+		new StudentWorldSimulation(6, 6, 5, StudentWorldSimulation.PLANNER_PLAYER, 1);
+	}
+
+	@Test
+	public void testFailedGamesKeepTheirCause() throws Exception {
+		StudentWorldSimulation simulation = new StudentWorldSimulation(5, 5, 5, new StudentWorldPlayerFactory() {
+			@Override
+			public Player createPlayer(StudentWorld game, Display display) {
+				return new StudentWorldPlayer(MoveAction.getAllActions(), display, game.getInitialCell()) {
+					@Override
+					public Action getAction() {
+						throw new IllegalStateException("no move");
+					}
+				};
+			}
+		}, 1);
+		StudentWorldSimulationSummary summary = simulation.run(2);
+
+		assertEquals("every game should fail", 2, summary.getNumFailed());
+		assertEquals("the first failure should be kept", "no move", summary.getFirstFailure().getMessage());
+	}
+}